@@ -0,0 +1,11 @@
+-- Индексы, по которым тесты ищут строки конкретного запроса (created) и заказы платежа или заявки.
+-- Таблицы создаёт приложение при старте, поэтому индексы создаются триггером на CREATE TABLE.
+-- Скрипт выполняется в базе POSTGRES_DB; триггер ставится и в template1, чтобы его получили базы воркеров (-Denv.isolation=database).
+
+\set ON_ERROR_STOP on
+
+\ir lookup-indexes.psql
+
+\connect template1
+
+\ir lookup-indexes.psql
@@ -0,0 +1,38 @@
+package bench;
+
+import data.api.ApiDataHelper;
+import data.api.AsyncApiHelper;
+import data.api.PayloadCorpus;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Подготовка тела запроса с картой: сериализация на каждый запрос против выборки из {@link PayloadCorpus}.
+ * Выделение памяти на операцию видно при запуске с профилировщиком {@code gc} ({@code jmh { profilers = ['gc'] }}).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadBenchmark {
+
+    private final PayloadCorpus corpus = PayloadCorpus.of(1024, PayloadBenchmark::card);
+    private long index;
+
+    private static ApiDataHelper.CardInfo card() {
+        return ApiDataHelper.getCard("1111222233334444", "08", "27", "IVAN PETROV", "123");
+    }
+
+    @Benchmark
+    public byte[] encodePerRequest() {
+        return AsyncApiHelper.encode(card());
+    }
+
+    @Benchmark
+    public byte[] preEncodedCorpus() {
+        return corpus.get(index++);
+    }
+}
@@ -0,0 +1,76 @@
+package bench;
+
+import data.bd.RowMappers;
+import data.bd.SQLHelper;
+import org.apache.commons.dbutils.BasicRowProcessor;
+import org.apache.commons.dbutils.GenerousBeanProcessor;
+import org.apache.commons.dbutils.ResultSetHandler;
+import org.apache.commons.dbutils.handlers.BeanListHandler;
+import org.openjdk.jmh.annotations.*;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetMetaDataImpl;
+import javax.sql.rowset.RowSetProvider;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение BeanListHandler (рефлексия commons-dbutils) и {@link RowMappers} на одной и той же выборке платежей.
+ * Выборка хранится в памяти (CachedRowSet), поэтому замеряется только преобразование строк.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RowMapperBenchmark {
+
+    @Param({"1", "1000"})
+    int rows;
+
+    private CachedRowSet rowSet;
+    private final ResultSetHandler<List<SQLHelper.PaymentEntity>> beanHandler =
+            new BeanListHandler<>(SQLHelper.PaymentEntity.class, new BasicRowProcessor(new GenerousBeanProcessor()));
+    private final ResultSetHandler<List<SQLHelper.PaymentEntity>> rowMapper = RowMappers.list(RowMappers::payment);
+
+    @Setup
+    public void setUp() throws SQLException {
+        rowSet = RowSetProvider.newFactory().createCachedRowSet();
+        RowSetMetaDataImpl metaData = new RowSetMetaDataImpl();
+        metaData.setColumnCount(3);
+        setColumn(metaData, 1, "transaction_id", Types.VARCHAR);
+        setColumn(metaData, 2, "status", Types.VARCHAR);
+        setColumn(metaData, 3, "amount", Types.INTEGER);
+        rowSet.setMetaData(metaData);
+        for (int i = 0; i < rows; i++) {
+            rowSet.moveToInsertRow();
+            rowSet.updateString(1, UUID.randomUUID().toString());
+            rowSet.updateString(2, i % 5 == 0 ? "DECLINED" : "APPROVED");
+            rowSet.updateInt(3, 4_500_000);
+            rowSet.insertRow();
+        }
+        rowSet.moveToCurrentRow();
+    }
+
+    private static void setColumn(RowSetMetaDataImpl metaData, int index, String name, int type) throws SQLException {
+        metaData.setColumnName(index, name);
+        metaData.setColumnLabel(index, name);
+        metaData.setColumnType(index, type);
+    }
+
+    @Benchmark
+    public List<SQLHelper.PaymentEntity> beanListHandler() throws SQLException {
+        rowSet.beforeFirst();
+        return beanHandler.handle(rowSet);
+    }
+
+    @Benchmark
+    public List<SQLHelper.PaymentEntity> rowMapper() throws SQLException {
+        rowSet.beforeFirst();
+        return rowMapper.handle(rowSet);
+    }
+}
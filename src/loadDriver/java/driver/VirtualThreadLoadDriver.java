@@ -0,0 +1,150 @@
+package driver;
+
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import data.api.AsyncResponse;
+import data.env.WorkerEnvironment;
+import data.ui.DataHelper;
+import load.LoadRequest;
+import load.LoadStats;
+import load.Outcome;
+import load.RequestSource;
+import load.RequestSources;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Драйвер нагрузки «поток на пользователя» для сценария оплаты {@code /api/v1/pay}.
+ * <p>
+ * Каждый пользователь — отдельный поток, который отправляет блокирующий запрос, ждёт ответа
+ * и повторяет запросы с шагом {@code driver.pacingMs}. На виртуальных потоках (JDK 21) так можно держать
+ * десятки тысяч пользователей; режим {@code platform} запускает тот же сценарий с тем же числом пользователей
+ * на обычных потоках (поток на пользователя) для сравнения.
+ * <p>
+ * Запуск: {@code ./gradlew virtualThreadLoad -Ddriver.users=50000 -Ddriver.threads=compare}.
+ */
+public class VirtualThreadLoadDriver {
+
+    private final int users;
+    private final Duration duration;
+    private final long pacingNanos;
+    private final RequestSource source;
+    private final HttpClient client;
+    private final String baseUrl;
+
+    VirtualThreadLoadDriver(int users, Duration duration, Duration pacing) {
+        this.users = users;
+        this.duration = duration;
+        this.pacingNanos = pacing.toNanos();
+        this.source = RequestSources.validCardCorpus(ApiEndpoints.PAY, DataHelper.CardNumber.approvedCardNumber(),
+                ApiStatus.APPROVED, 1024);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        this.baseUrl = "http://localhost:" + WorkerEnvironment.getAppPort();
+    }
+
+    public static void main(String[] args) throws Exception {
+        int users = Integer.getInteger("driver.users", 10_000);
+        Duration duration = Duration.ofSeconds(Long.getLong("driver.durationSec", 60L));
+        Duration pacing = Duration.ofMillis(Long.getLong("driver.pacingMs", 5_000L));
+        String threads = System.getProperty("driver.threads", "virtual");
+        VirtualThreadLoadDriver driver = new VirtualThreadLoadDriver(users, duration, pacing);
+        if (!"platform".equals(threads)) {
+            driver.run("virtual", Executors.newVirtualThreadPerTaskExecutor(), users);
+        }
+        if (!"virtual".equals(threads)) {
+            int platformUsers = Math.min(users, Integer.getInteger("driver.platformThreads", users));
+            String kind = platformUsers < users
+                    ? String.format("platform (capped at %d of %d users, not comparable)", platformUsers, users)
+                    : "platform";
+            driver.run(kind, Executors.newThreadPerTaskExecutor(Thread.ofPlatform().factory()), platformUsers);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * Запускает {@code active} пользователей из {@code users}. Если поток для очередного пользователя
+     * создать не удалось, прогон продолжается с уже запущенными, а отказ выводится как результат сравнения.
+     */
+    void run(String kind, ExecutorService executor, int active) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        threads.resetPeakThreadCount();
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        int started = 0;
+        String failure = null;
+        try (executor) {
+            for (int u = 0; u < active; u++) {
+                long userStart = start + pacingNanos * u / active;
+                long seed = u;
+                try {
+                    executor.submit(() -> user(seed, userStart, end, stats));
+                } catch (OutOfMemoryError e) {
+                    failure = e.getMessage();
+                    break;
+                }
+                started++;
+            }
+            executor.shutdown();
+            executor.awaitTermination(duration.toSeconds() + 60, TimeUnit.SECONDS);
+        }
+        long heapMb = (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) >> 20;
+        if (failure != null) {
+            System.out.printf("%s threads: could not start user %d of %d: %s%n", kind, started + 1, active, failure);
+        }
+        System.out.printf("%s threads, %d of %d users started: peak JVM threads %d, heap in use %d MB%n",
+                kind, started, users, threads.getPeakThreadCount(), heapMb);
+        System.out.println(stats.report(System.nanoTime() - start));
+    }
+
+    private void user(long seed, long userStart, long end, LoadStats stats) {
+        long intended = userStart;
+        long index = seed;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                try {
+                    Thread.sleep(Duration.ofNanos(wait));
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+            LoadRequest request = source.next(index);
+            send(request, intended, stats);
+            intended += pacingNanos;
+            index += users;
+        }
+    }
+
+    private void send(LoadRequest request, long intended, LoadStats stats) {
+        HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(baseUrl + request.getEndpoint().getEndpoint()))
+                .timeout(Duration.ofSeconds(30))
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(request.getBody()))
+                .build();
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+            long received = System.nanoTime();
+            AsyncResponse result = new AsyncResponse(request.getEndpoint(), response.statusCode(), response.body(), sent, received);
+            stats.record(request, Outcome.of(result), intended, sent, received);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            stats.record(request, Outcome.TRANSPORT_ERROR, intended, sent, System.nanoTime());
+        }
+    }
+}
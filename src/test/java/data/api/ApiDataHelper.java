@@ -9,15 +9,17 @@ public class ApiDataHelper {
             return "";
         }
 
-        StringBuilder result = new StringBuilder();
-        for (int i = 0; i < cardNumber.length(); i++) {
+        int length = cardNumber.length();
+        char[] result = new char[length + (length - 1) / 4];
+        int position = 0;
+        for (int i = 0; i < length; i++) {
             if (i > 0 && i % 4 == 0) {
-                result.append(" ");
+                result[position++] = ' ';
             }
-            result.append(cardNumber.charAt(i));
+            result[position++] = cardNumber.charAt(i);
         }
 
-        return result.toString();
+        return new String(result);
     }
 
     public static String getSQLInjection(){
@@ -1,5 +1,6 @@
 package data.api;
 
+import data.env.WorkerEnvironment;
 import io.restassured.builder.RequestSpecBuilder;
 import io.restassured.filter.log.LogDetail;
 import io.restassured.http.ContentType;
@@ -7,50 +8,96 @@ import io.restassured.http.Method;
 import io.restassured.response.Response;
 import io.restassured.specification.RequestSpecification;
 
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
 
 public class ApiHelper {
-    private static final RequestSpecification requestSpec = new RequestSpecBuilder()
+    /**
+     * Режим логирования: {@code ALL} (по умолчанию) — каждый запрос и ответ выводится в консоль,
+     * {@code ON_FAILURE} — обмены копятся в {@link ExchangeLog} и выводятся только при падении теста.
+     * Переход на {@code ON_FAILURE} по умолчанию ждёт замера {@code LogModeComparison} на стенде.
+     */
+    public enum LogMode {
+        ALL,
+        ON_FAILURE
+    }
+
+    private static volatile LogMode logMode = LogMode.valueOf(System.getProperty("api.log", LogMode.ALL.name()));
+
+    private static final RequestSpecification baseSpec = new RequestSpecBuilder()
             .setBaseUri("http://localhost")
-            .setPort(8080)
+            .setPort(WorkerEnvironment.getAppPort())
             .setAccept(ContentType.JSON)
             .setContentType(ContentType.JSON)
-            .log(LogDetail.ALL)
+            .addFilter(new LatencyBreakdown())
+            .build();
+
+    private static final RequestSpecification loggingSpec = recording(new RequestSpecBuilder()
+            .addRequestSpecification(baseSpec)
+            .log(LogDetail.ALL))
             .build();
 
+    private static final RequestSpecification capturingSpec = recording(new RequestSpecBuilder()
+            .addRequestSpecification(baseSpec)
+            .addFilter(new ExchangeLog()))
+            .build();
+
+    private static RequestSpecBuilder recording(RequestSpecBuilder builder) {
+        return ExchangeRecorder.isEnabled() ? builder.addFilter(ExchangeRecorder.getInstance()) : builder;
+    }
+
+    /**
+     * Эндпоинт каждого отправленного запроса, чтобы {@link #assertResponse} мог выбрать бюджет из {@link LatencyBudgets}.
+     */
+    private static final Map<Response, ApiEndpoints> endpoints = Collections.synchronizedMap(new WeakHashMap<>());
+
+    public static void setLogMode(LogMode mode) {
+        logMode = mode;
+    }
+
+    private static RequestSpecification request() {
+        return given().spec(logMode == LogMode.ALL ? loggingSpec : capturingSpec);
+    }
+
+    private static Response extract(Response response) {
+        if (logMode == LogMode.ALL) {
+            return response.then().log().all().extract().response();
+        }
+        return response;
+    }
+
+    private static Response remember(ApiEndpoints endpoint, Response response) {
+        endpoints.put(response, endpoint);
+        return response;
+    }
+
     public static Response sendRequest(ApiEndpoints endpoint, Method httpMethod) {
-        return given()
-                .spec(requestSpec)
+        return remember(endpoint, extract(request()
                 .when()
-                .request(httpMethod, endpoint.getEndpoint())
-                .then()
-                .log().all()
-                .extract().response();
+                .request(httpMethod, endpoint.getEndpoint())));
     }
 
     public static Response sendRequest(ApiEndpoints endpoint, Object body, Method httpMethod) {
-        return given()
-                .spec(requestSpec)
+        return remember(endpoint, extract(request()
                 .body(body)
                 .when()
-                .request(httpMethod, endpoint.getEndpoint())
-                .then()
-                .log().all()
-                .extract().response();
+                .request(httpMethod, endpoint.getEndpoint())));
     }
 
     public static void assertResponse(Response response, ApiStatus status) {
+        ExchangeRecorder.expect(response, status);
         response.then()
                 .statusCode(status.getCode());
 
-        if (status == ApiStatus.APPROVED || status == ApiStatus.DECLINED) {
-            response.then()
-                    .body("status", equalTo(status.getMessage()));
-        } else {
-            response.then()
-                    .body("status", equalTo(status.getCode()))
-                    .body("error", equalTo(status.getMessage()));
+        ResponseContracts.assertBody(status, ResponseContracts.parse(response.asString()));
+
+        ApiEndpoints endpoint = endpoints.get(response);
+        if (endpoint != null) {
+            LatencyBudgets.check(endpoint, status, response.getTime());
         }
     }
 
@@ -0,0 +1,104 @@
+package data.api;
+
+import io.restassured.http.Method;
+import lombok.Value;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Двоичный журнал запросов к API для воспроизведения нагрузкой.
+ * <p>
+ * Формат: {@code int MAGIC}, {@code int VERSION}, {@code int} число записей, затем по каждой записи:
+ * {@code long} смещение от первого запроса в наносекундах, {@code byte} метод ({@link Method}),
+ * {@code byte} эндпоинт ({@link ApiEndpoints}), {@code short} код ответа, полученного при записи,
+ * {@code byte} {@link ApiStatus}, которому соответствовал этот ответ (код и тело), или -1, если ни одному,
+ * {@code byte} статус, который ожидал тест в {@link ApiHelper#assertResponse}, или -1,
+ * {@code int} длина тела запроса или -1, если тела нет, и сами байты тела.
+ * <p>
+ * Эталоном для воспроизведения служит полученный ответ; ожидание теста хранится только для справки,
+ * так как часть тестов падает намеренно и приложение отвечает не тем, что ожидает тест.
+ */
+public class ApiJournal {
+    private ApiJournal() {
+    }
+
+    private static final int MAGIC = 0x41504a4c;
+    private static final int VERSION = 2;
+
+    @Value
+    public static class Entry {
+        long offsetNanos;
+        Method method;
+        ApiEndpoints endpoint;
+        byte[] body;
+        int statusCode;
+        ApiStatus responseStatus;
+        ApiStatus assertedStatus;
+    }
+
+    public static void write(Path file, List<Entry> entries) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.offsetNanos);
+                out.writeByte(entry.method.ordinal());
+                out.writeByte(entry.endpoint.ordinal());
+                out.writeShort(entry.statusCode);
+                out.writeByte(entry.responseStatus == null ? -1 : entry.responseStatus.ordinal());
+                out.writeByte(entry.assertedStatus == null ? -1 : entry.assertedStatus.ordinal());
+                if (entry.body == null) {
+                    out.writeInt(-1);
+                } else {
+                    out.writeInt(entry.body.length);
+                    out.write(entry.body);
+                }
+            }
+        }
+    }
+
+    public static List<Entry> read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an API journal of version " + VERSION + ": " + file);
+            }
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            Method[] methods = Method.values();
+            ApiEndpoints[] endpoints = ApiEndpoints.values();
+            ApiStatus[] statuses = ApiStatus.values();
+            for (int i = 0; i < count; i++) {
+                long offset = in.readLong();
+                Method method = methods[in.readByte()];
+                ApiEndpoints endpoint = endpoints[in.readByte()];
+                int statusCode = in.readShort();
+                ApiStatus responseStatus = status(statuses, in.readByte());
+                ApiStatus assertedStatus = status(statuses, in.readByte());
+                int length = in.readInt();
+                byte[] body = null;
+                if (length >= 0) {
+                    body = new byte[length];
+                    in.readFully(body);
+                }
+                entries.add(new Entry(offset, method, endpoint, body, statusCode, responseStatus, assertedStatus));
+            }
+            return entries;
+        }
+    }
+
+    private static ApiStatus status(ApiStatus[] statuses, byte ordinal) {
+        return ordinal < 0 ? null : statuses[ordinal];
+    }
+}
@@ -0,0 +1,14 @@
+package data.api;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+public class ApiSessionListener implements LauncherSessionListener {
+
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        LatencyBudgets.shutdown();
+        ExchangeRecorder.writeJournal();
+        LatencyBreakdown.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package data.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import data.env.WorkerEnvironment;
+import io.restassured.http.Method;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Неблокирующая отправка запросов к API на общем пуле соединений {@link HttpClient}.
+ * Несколько потоков могут держать сотни запросов в полёте одновременно.
+ */
+public class AsyncApiHelper {
+    private AsyncApiHelper() {
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ExecutorService executor = Executors.newFixedThreadPool(
+            Integer.getInteger("api.async.threads", 4), runnable -> {
+                Thread thread = new Thread(runnable, "api-async");
+                thread.setDaemon(true);
+                return thread;
+            });
+    private static final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(executor)
+            .build();
+    private static final Duration timeout = Duration.ofSeconds(Long.getLong("api.async.timeoutSec", 30L));
+
+    public static CompletableFuture<AsyncResponse> sendRequestAsync(ApiEndpoints endpoint, Method httpMethod) {
+        return send(endpoint, HttpRequest.BodyPublishers.noBody(), httpMethod);
+    }
+
+    public static CompletableFuture<AsyncResponse> sendRequestAsync(ApiEndpoints endpoint, Object body, Method httpMethod) {
+        return send(endpoint, HttpRequest.BodyPublishers.ofByteArray(encode(body)), httpMethod);
+    }
+
+    private static CompletableFuture<AsyncResponse> send(ApiEndpoints endpoint, HttpRequest.BodyPublisher body,
+                                                         Method httpMethod) {
+        HttpRequest request = HttpRequest.newBuilder(uri(endpoint))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("Content-Type", "application/json")
+                .method(httpMethod.name(), body)
+                .build();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> new AsyncResponse(endpoint, response.statusCode(), response.body(),
+                        sent, System.nanoTime()));
+    }
+
+    private static URI uri(ApiEndpoints endpoint) {
+        return URI.create("http://localhost:" + WorkerEnvironment.getAppPort() + endpoint.getEndpoint());
+    }
+
+    public static byte[] encode(Object body) {
+        if (body instanceof byte[]) {
+            return (byte[]) body;
+        }
+        if (body instanceof String) {
+            return ((String) body).getBytes(StandardCharsets.UTF_8);
+        }
+        try {
+            return mapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static void assertResponse(AsyncResponse response, ApiStatus status) {
+        Assertions.assertEquals(status.getCode(), response.getStatusCode(), "Status code mismatch: " + response.getBody());
+        ResponseContracts.assertBody(status, ResponseContracts.parse(response.getBody()));
+    }
+}
@@ -0,0 +1,16 @@
+package data.api;
+
+import lombok.Value;
+
+@Value
+public class AsyncResponse {
+    ApiEndpoints endpoint;
+    int statusCode;
+    String body;
+    long sentNanos;
+    long receivedNanos;
+
+    public long getLatencyNanos() {
+        return receivedNanos - sentNanos;
+    }
+}
@@ -0,0 +1,91 @@
+package data.api;
+
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Последние обмены запрос/ответ текущего потока в кольцевом буфере.
+ * Запросы и ответы сохраняются как есть и форматируются только при падении теста
+ * (см. {@link ExchangeLogExtension}).
+ */
+public class ExchangeLog implements Filter {
+
+    private static final int CAPACITY = Integer.getInteger("api.log.buffer", 20);
+    private static final ThreadLocal<Ring> rings = ThreadLocal.withInitial(Ring::new);
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        Response response = ctx.next(requestSpec, responseSpec);
+        rings.get().add(new Exchange(requestSpec.getMethod(), requestSpec.getURI(), requestSpec.getHeaders().toString(),
+                requestSpec.getBody(), response));
+        return response;
+    }
+
+    public static void clear() {
+        rings.get().clear();
+    }
+
+    /**
+     * Обмены текущего потока, от старых к новым, в читаемом виде.
+     */
+    public static String format() {
+        return rings.get().format();
+    }
+
+    private static class Exchange {
+        final String method;
+        final String uri;
+        final String headers;
+        final Object body;
+        final Response response;
+
+        Exchange(String method, String uri, String headers, Object body, Response response) {
+            this.method = method;
+            this.uri = uri;
+            this.headers = headers;
+            this.body = body;
+            this.response = response;
+        }
+
+        void appendTo(StringBuilder out) {
+            out.append(method).append(' ').append(uri).append('\n')
+                    .append(headers).append('\n');
+            if (body != null) {
+                out.append(body instanceof byte[] ? new String((byte[]) body, StandardCharsets.UTF_8) : body).append('\n');
+            }
+            out.append("--> ").append(response.getStatusLine()).append(" (").append(response.getTime()).append(" ms)\n")
+                    .append(response.getHeaders()).append('\n')
+                    .append(response.getBody().asPrettyString()).append('\n');
+        }
+    }
+
+    private static class Ring {
+        final Exchange[] exchanges = new Exchange[CAPACITY];
+        long next;
+
+        void add(Exchange exchange) {
+            exchanges[(int) (next++ % CAPACITY)] = exchange;
+        }
+
+        void clear() {
+            Arrays.fill(exchanges, null);
+            next = 0;
+        }
+
+        String format() {
+            StringBuilder out = new StringBuilder();
+            for (long i = Math.max(0, next - CAPACITY); i < next; i++) {
+                out.append("===== #").append(i + 1).append('\n');
+                exchanges[(int) (i % CAPACITY)].appendTo(out);
+            }
+            return out.toString();
+        }
+    }
+}
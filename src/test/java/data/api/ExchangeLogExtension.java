@@ -0,0 +1,27 @@
+package data.api;
+
+import io.qameta.allure.Allure;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.TestWatcher;
+
+/**
+ * Выводит последние запросы и ответы API в консоль и во вложение Allure, если тест упал.
+ */
+public class ExchangeLogExtension implements BeforeEachCallback, TestWatcher {
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        ExchangeLog.clear();
+    }
+
+    @Override
+    public void testFailed(ExtensionContext context, Throwable cause) {
+        String exchanges = ExchangeLog.format();
+        if (exchanges.isEmpty()) {
+            return;
+        }
+        System.out.println("Last API exchanges of " + context.getDisplayName() + ":\n" + exchanges);
+        Allure.addAttachment("API exchanges", "text/plain", exchanges);
+    }
+}
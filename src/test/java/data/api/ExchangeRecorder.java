@@ -0,0 +1,148 @@
+package data.api;
+
+import data.env.WorkerEnvironment;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.http.Method;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Запись запросов {@link ApiHelper} для {@link ApiJournal} при {@code -Dapi.record=true}. Эталоном служит
+ * фактический ответ (код и соответствующий ему {@link ApiStatus}); статус из {@link ApiHelper#assertResponse}
+ * записывается только для справки.
+ * Журнал сохраняется в конце прогона в {@code api.record.file} (для форка с изолированным окружением
+ * к имени добавляется номер воркера).
+ */
+public class ExchangeRecorder implements Filter {
+
+    private static final boolean enabled = Boolean.getBoolean("api.record");
+    private static final ExchangeRecorder instance = new ExchangeRecorder();
+
+    private final Queue<Recorded> recorded = new ConcurrentLinkedQueue<>();
+    private final Map<Response, Recorded> byResponse = Collections.synchronizedMap(new WeakHashMap<>());
+    private final long startNanos = System.nanoTime();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static ExchangeRecorder getInstance() {
+        return instance;
+    }
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        long sent = System.nanoTime();
+        Response response = ctx.next(requestSpec, responseSpec);
+        ApiEndpoints endpoint = endpointOf(requestSpec.getUserDefinedPath());
+        if (endpoint != null) {
+            Object body = requestSpec.getBody();
+            Recorded exchange = new Recorded(sent - startNanos, Method.valueOf(requestSpec.getMethod()), endpoint,
+                    body == null ? null : AsyncApiHelper.encode(body), response.getStatusCode(), observedStatus(response));
+            recorded.add(exchange);
+            byResponse.put(response, exchange);
+        }
+        return response;
+    }
+
+    /**
+     * Запоминает статус, который ожидает тест; вызывается из {@link ApiHelper#assertResponse} до проверки,
+     * поэтому не влияет на эталон.
+     */
+    static void expect(Response response, ApiStatus status) {
+        if (!enabled) {
+            return;
+        }
+        Recorded exchange = instance.byResponse.get(response);
+        if (exchange != null) {
+            exchange.asserted = status;
+        }
+    }
+
+    private static ApiEndpoints endpointOf(String path) {
+        for (ApiEndpoints endpoint : ApiEndpoints.values()) {
+            if (endpoint.getEndpoint().equals(path)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+
+    private static ApiStatus observedStatus(Response response) {
+        for (ApiStatus status : ApiStatus.values()) {
+            if (status.getCode() != response.getStatusCode()) {
+                continue;
+            }
+            if (status != ApiStatus.APPROVED && status != ApiStatus.DECLINED) {
+                return status;
+            }
+            if (response.asString().contains("\"" + status.getMessage() + "\"")) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    public static Path getJournalFile() {
+        String file = System.getProperty("api.record.file", "build/api-journal.bin");
+        if (WorkerEnvironment.isIsolated()) {
+            file = file.replaceFirst("(\\.bin)?$", "-w" + WorkerEnvironment.getWorkerId() + ".bin");
+        }
+        return Paths.get(file);
+    }
+
+    public static void writeJournal() {
+        if (!enabled || instance.recorded.isEmpty()) {
+            return;
+        }
+        List<Recorded> exchanges = new ArrayList<>(instance.recorded);
+        exchanges.sort(Comparator.comparingLong(exchange -> exchange.offsetNanos));
+        long first = exchanges.get(0).offsetNanos;
+        List<ApiJournal.Entry> entries = new ArrayList<>(exchanges.size());
+        for (Recorded exchange : exchanges) {
+            entries.add(new ApiJournal.Entry(exchange.offsetNanos - first, exchange.method, exchange.endpoint,
+                    exchange.body, exchange.statusCode, exchange.observed, exchange.asserted));
+        }
+        Path file = getJournalFile();
+        try {
+            ApiJournal.write(file, entries);
+            System.out.println("API journal with " + entries.size() + " requests written to " + file.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Could not write API journal to " + file + ": " + e);
+        }
+    }
+
+    private static class Recorded {
+        final long offsetNanos;
+        final Method method;
+        final ApiEndpoints endpoint;
+        final byte[] body;
+        final int statusCode;
+        final ApiStatus observed;
+        volatile ApiStatus asserted;
+
+        Recorded(long offsetNanos, Method method, ApiEndpoints endpoint, byte[] body, int statusCode, ApiStatus observed) {
+            this.offsetNanos = offsetNanos;
+            this.method = method;
+            this.endpoint = endpoint;
+            this.body = body;
+            this.statusCode = statusCode;
+            this.observed = observed;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package data.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import data.bd.SQLHelper;
+import data.gate.GateHelper;
+import gate.GateEndpoint;
+import gate.GateJournal;
+import io.restassured.filter.Filter;
+import io.restassured.filter.FilterContext;
+import io.restassured.response.Response;
+import io.restassured.specification.FilterableRequestSpecification;
+import io.restassured.specification.FilterableResponseSpecification;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Разбивка времени запроса {@link ApiHelper} на участки при {@code -Dapi.breakdown=true}. Запрос получает заголовок
+ * {@link GateJournal#CORRELATION_HEADER}, а после ответа находятся обращение магазина к банку в журнале локального
+ * симулятора (по correlation id, если магазин его передал, иначе по маске карты) и строка в базе по {@code created}:
+ * <ul>
+ *     <li>pre-gate — от отправки запроса до получения запроса банком;</li>
+ *     <li>gate — ответ банка;</li>
+ *     <li>persistence — от ответа банка до {@code created} в базе;</li>
+ *     <li>response — от {@code created} до получения ответа тестом.</li>
+ * </ul>
+ * Время тестов, симулятора и приложения сравнивается напрямую, поэтому все они должны работать на одной машине.
+ * Если участок получается отрицательным (часы разошлись или найдена чужая строка), запрос не попадает
+ * в перцентили и учитывается как несопоставленный с причиной «out of order».
+ */
+public class LatencyBreakdown implements Filter {
+
+    public enum Segment {
+        END_TO_END,
+        PRE_GATE,
+        GATE,
+        PERSISTENCE,
+        RESPONSE
+    }
+
+    private static final boolean enabled = Boolean.getBoolean("api.breakdown");
+    private static final long DB_SLACK_MICROS = TimeUnit.MILLISECONDS.toMicros(5);
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final Map<String, Histogram> segments = new ConcurrentHashMap<>();
+    private static final Map<String, LongAdder> unmatched = new ConcurrentHashMap<>();
+
+    @Override
+    public Response filter(FilterableRequestSpecification requestSpec, FilterableResponseSpecification responseSpec,
+                           FilterContext ctx) {
+        ApiEndpoints endpoint = gateEndpointOf(requestSpec.getUserDefinedPath());
+        if (!enabled || endpoint == null) {
+            return ctx.next(requestSpec, responseSpec);
+        }
+        String correlationId = UUID.randomUUID().toString();
+        requestSpec.header(GateJournal.CORRELATION_HEADER, correlationId);
+        long mark = GateHelper.mark();
+        long sent = nowMicros();
+        Response response = ctx.next(requestSpec, responseSpec);
+        long received = nowMicros();
+        record(endpoint, sent, received, findGateCall(mark, endpoint, correlationId, requestSpec.getBody()),
+                findCreated(endpoint, sent, received));
+        return response;
+    }
+
+    private static ApiEndpoints gateEndpointOf(String path) {
+        if (ApiEndpoints.PAY.getEndpoint().equals(path)) {
+            return ApiEndpoints.PAY;
+        }
+        if (ApiEndpoints.CREDIT.getEndpoint().equals(path)) {
+            return ApiEndpoints.CREDIT;
+        }
+        return null;
+    }
+
+    private static long nowMicros() {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, Instant.now());
+    }
+
+    private static Optional<GateJournal.Entry> findGateCall(long mark, ApiEndpoints endpoint, String correlationId, Object body) {
+        if (mark < 0) {
+            return Optional.empty();
+        }
+        GateEndpoint gateEndpoint = endpoint == ApiEndpoints.PAY ? GateEndpoint.PAYMENT : GateEndpoint.CREDIT;
+        List<GateJournal.Entry> calls = GateHelper.getEntriesSince(mark).stream()
+                .filter(entry -> entry.endpoint == gateEndpoint)
+                .collect(Collectors.toList());
+        Optional<GateJournal.Entry> byId = calls.stream()
+                .filter(entry -> correlationId.equals(entry.correlationId))
+                .findFirst();
+        if (byId.isPresent()) {
+            return byId;
+        }
+        String cardMask = GateJournal.maskCard(cardNumber(body));
+        List<GateJournal.Entry> byCard = calls.stream()
+                .filter(entry -> entry.cardMask.equals(cardMask))
+                .collect(Collectors.toList());
+        return byCard.size() == 1 ? Optional.of(byCard.get(0)) : Optional.empty();
+    }
+
+    private static String cardNumber(Object body) {
+        if (body == null) {
+            return null;
+        }
+        try {
+            return mapper.readTree(AsyncApiHelper.encode(body)).path("number").asText(null);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static Optional<Long> findCreated(ApiEndpoints endpoint, long sentMicros, long receivedMicros) {
+        Timestamp from = toTimestamp(sentMicros - DB_SLACK_MICROS);
+        Timestamp to = toTimestamp(receivedMicros + DB_SLACK_MICROS);
+        List<Timestamp> created = endpoint == ApiEndpoints.PAY
+                ? SQLHelper.getPaymentCreatedBetween(from, to)
+                : SQLHelper.getCreditRequestCreatedBetween(from, to);
+        return created.size() == 1 ? Optional.of(toMicros(created.get(0))) : Optional.empty();
+    }
+
+    private static Timestamp toTimestamp(long epochMicros) {
+        return Timestamp.from(Instant.EPOCH.plus(epochMicros, ChronoUnit.MICROS));
+    }
+
+    private static long toMicros(Timestamp timestamp) {
+        return ChronoUnit.MICROS.between(Instant.EPOCH, timestamp.toInstant());
+    }
+
+    private static void record(ApiEndpoints endpoint, long sent, long received,
+                               Optional<GateJournal.Entry> gate, Optional<Long> created) {
+        if (received < sent) {
+            unmatch(endpoint, "out of order");
+            return;
+        }
+        add(endpoint, Segment.END_TO_END, received - sent);
+        if (gate.isEmpty() || gate.get().respondedMicros == 0) {
+            unmatch(endpoint, "without gate call");
+            return;
+        }
+        long gateReceived = gate.get().receivedMicros;
+        long gateResponded = gate.get().respondedMicros;
+        if (gateReceived < sent || gateResponded < gateReceived
+                || created.isPresent() && (created.get() < gateResponded || received < created.get())) {
+            unmatch(endpoint, "out of order");
+            return;
+        }
+        add(endpoint, Segment.PRE_GATE, gateReceived - sent);
+        add(endpoint, Segment.GATE, gateResponded - gateReceived);
+        if (created.isEmpty()) {
+            unmatch(endpoint, "without database row");
+            return;
+        }
+        add(endpoint, Segment.PERSISTENCE, created.get() - gateResponded);
+        add(endpoint, Segment.RESPONSE, received - created.get());
+    }
+
+    private static void unmatch(ApiEndpoints endpoint, String reason) {
+        unmatched.computeIfAbsent(endpoint + " " + reason, k -> new LongAdder()).increment();
+    }
+
+    private static void add(ApiEndpoints endpoint, Segment segment, long micros) {
+        segments.computeIfAbsent(endpoint + " " + segment, k -> new ConcurrentHistogram(3)).recordValue(micros);
+    }
+
+    public static String summary() {
+        StringBuilder out = new StringBuilder(String.format("API latency breakdown, us:%n  %-24s %7s %9s %9s %9s %9s%n",
+                "segment", "count", "p50", "p90", "p99", "max"));
+        for (ApiEndpoints endpoint : new ApiEndpoints[]{ApiEndpoints.PAY, ApiEndpoints.CREDIT}) {
+            for (Segment segment : Segment.values()) {
+                Histogram histogram = segments.get(endpoint + " " + segment);
+                if (histogram == null) {
+                    continue;
+                }
+                Histogram copy = histogram.copy();
+                out.append(String.format("  %-24s %7d %9d %9d %9d %9d%n", endpoint + " " + segment, copy.getTotalCount(),
+                        copy.getValueAtPercentile(50), copy.getValueAtPercentile(90), copy.getValueAtPercentile(99),
+                        copy.getMaxValue()));
+            }
+        }
+        new TreeMap<>(unmatched).forEach((reason, count) ->
+                out.append(String.format("  %s: %d requests%n", reason, count.sum())));
+        return out.toString();
+    }
+
+    public static void shutdown() {
+        if (!segments.isEmpty()) {
+            System.out.print(summary());
+        }
+    }
+}
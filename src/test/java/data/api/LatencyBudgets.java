@@ -0,0 +1,160 @@
+package data.api;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.model.Status;
+import lombok.SneakyThrows;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Бюджеты времени ответа по {@link ApiEndpoints} и {@link ApiStatus} из {@code latency-budgets.properties}.
+ * Время каждого проверенного ответа копится в гистограмме, в конце прогона выводится сводка,
+ * а строка по каждой паре эндпоинт/статус дописывается в {@code api.latency.history}, чтобы видеть дрейф между прогонами.
+ */
+public class LatencyBudgets {
+    private LatencyBudgets() {
+    }
+
+    public enum Mode {
+        FAIL,
+        WARN,
+        OFF
+    }
+
+    private static final String WILDCARD = "*";
+    private static final Properties budgets = load(System.getProperty("api.latency.budgets", "/latency-budgets.properties"));
+    private static final Mode mode = Mode.valueOf(System.getProperty("api.latency.mode", budgets.getProperty("mode", Mode.WARN.name())));
+    private static final Path history = Paths.get(System.getProperty("api.latency.history", "build/latency-history.csv"));
+    private static final Map<String, Observed> observed = new ConcurrentHashMap<>();
+
+    @SneakyThrows
+    private static Properties load(String location) {
+        Properties properties = new Properties();
+        Path file = Paths.get(location);
+        try (InputStream in = Files.isRegularFile(file) ? Files.newInputStream(file) : LatencyBudgets.class.getResourceAsStream(location)) {
+            if (in != null) {
+                properties.load(in);
+            }
+        }
+        return properties;
+    }
+
+    public static Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Бюджет в миллисекундах или -1, если для пары не задан ни один ключ.
+     */
+    public static long getBudgetMillis(ApiEndpoints endpoint, ApiStatus status) {
+        for (String key : new String[]{
+                endpoint.name() + "." + status.name(),
+                endpoint.name() + "." + WILDCARD,
+                WILDCARD + "." + status.name(),
+                WILDCARD + "." + WILDCARD}) {
+            String value = budgets.getProperty(key);
+            if (value != null) {
+                return Long.parseLong(value.trim());
+            }
+        }
+        return -1;
+    }
+
+    public static void check(ApiEndpoints endpoint, ApiStatus status, long elapsedMillis) {
+        if (mode == Mode.OFF) {
+            return;
+        }
+        long budget = getBudgetMillis(endpoint, status);
+        Observed stats = observed.computeIfAbsent(endpoint.name() + "." + status.name(), k -> new Observed(budget));
+        stats.latency.recordValue(Math.max(elapsedMillis, 0));
+        if (budget < 0 || elapsedMillis <= budget) {
+            return;
+        }
+        stats.exceeded.increment();
+        String message = String.format("%s %s answered in %d ms, budget %d ms", endpoint, status, elapsedMillis, budget);
+        if (mode == Mode.FAIL) {
+            Assertions.fail("Latency budget exceeded: " + message);
+        }
+        System.out.println("WARN latency budget exceeded: " + message);
+        Allure.step("Latency budget exceeded: " + message, Status.BROKEN);
+    }
+
+    public static String summary() {
+        StringBuilder result = new StringBuilder(String.format("API latency vs budget, ms (mode %s):%n  %-28s %7s %7s %7s %7s %7s %8s %9s%n",
+                mode, "endpoint.status", "count", "p50", "p95", "p99", "max", "budget", "exceeded"));
+        new TreeMap<>(observed).forEach((key, stats) -> {
+            Histogram latency = stats.latency.copy();
+            result.append(String.format("  %-28s %7d %7d %7d %7d %7d %8s %9d%n",
+                    key, latency.getTotalCount(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(95),
+                    latency.getValueAtPercentile(99), latency.getMaxValue(),
+                    stats.budget < 0 ? "-" : String.valueOf(stats.budget), stats.exceeded.sum()));
+        });
+        return result.toString();
+    }
+
+    /**
+     * Дописывает сводку прогона в CSV-историю: время прогона, пара эндпоинт/статус, число ответов, перцентили, бюджет и превышения.
+     */
+    public static void appendHistory() throws IOException {
+        if (observed.isEmpty()) {
+            return;
+        }
+        if (history.getParent() != null) {
+            Files.createDirectories(history.getParent());
+        }
+        boolean header = !Files.exists(history);
+        String runAt = Instant.now().toString();
+        try (Writer out = Files.newBufferedWriter(history, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            if (header) {
+                out.write("run_at,endpoint_status,count,p50_ms,p95_ms,p99_ms,max_ms,budget_ms,exceeded\n");
+            }
+            for (Map.Entry<String, Observed> entry : new TreeMap<>(observed).entrySet()) {
+                Histogram latency = entry.getValue().latency.copy();
+                out.write(String.join(",", runAt, entry.getKey(), String.valueOf(latency.getTotalCount()),
+                        String.valueOf(latency.getValueAtPercentile(50)), String.valueOf(latency.getValueAtPercentile(95)),
+                        String.valueOf(latency.getValueAtPercentile(99)), String.valueOf(latency.getMaxValue()),
+                        String.valueOf(entry.getValue().budget), String.valueOf(entry.getValue().exceeded.sum())));
+                out.write('\n');
+            }
+        }
+    }
+
+    public static void shutdown() {
+        if (observed.isEmpty()) {
+            return;
+        }
+        System.out.print(summary());
+        try {
+            appendHistory();
+        } catch (IOException e) {
+            System.out.println("Could not append latency history to " + history + ": " + e);
+        }
+    }
+
+    private static class Observed {
+        final long budget;
+        final Histogram latency = new ConcurrentHistogram(3);
+        final LongAdder exceeded = new LongAdder();
+
+        Observed(long budget) {
+            this.budget = budget;
+        }
+    }
+}
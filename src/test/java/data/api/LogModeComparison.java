@@ -0,0 +1,34 @@
+package data.api;
+
+import io.restassured.http.Method;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Сравнение режимов логирования {@link ApiHelper} на серии запросов с пустым телом
+ * (приложение отвечает 400 и не пишет в БД). Запуск: {@code ./gradlew compareApiLogModes -Dapi.log.requests=1000}.
+ */
+public class LogModeComparison {
+
+    public static void main(String[] args) {
+        int requests = Integer.getInteger("api.log.requests", 1000);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        run(ApiHelper.LogMode.ON_FAILURE, requests / 10, threads);
+        for (ApiHelper.LogMode mode : ApiHelper.LogMode.values()) {
+            long[] result = run(mode, requests, threads);
+            System.out.printf("%-10s %d requests: wall %d ms, CPU %d ms%n", mode, requests, result[0], result[1]);
+        }
+    }
+
+    private static long[] run(ApiHelper.LogMode mode, int requests, ThreadMXBean threads) {
+        ApiHelper.setLogMode(mode);
+        long wall = System.nanoTime();
+        long cpu = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < requests; i++) {
+            ApiHelper.sendRequest(ApiEndpoints.PAY, "{}", Method.POST);
+            ExchangeLog.clear();
+        }
+        return new long[]{(System.nanoTime() - wall) / 1_000_000, (threads.getCurrentThreadCpuTime() - cpu) / 1_000_000};
+    }
+}
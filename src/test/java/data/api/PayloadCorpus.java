@@ -0,0 +1,36 @@
+package data.api;
+
+import java.util.function.Supplier;
+
+/**
+ * Набор тел запросов, заранее сериализованных в байты. При отправке тело берётся по индексу,
+ * без сериализации и сборки строк на каждый запрос.
+ */
+public class PayloadCorpus {
+
+    private final byte[][] bodies;
+
+    private PayloadCorpus(byte[][] bodies) {
+        this.bodies = bodies;
+    }
+
+    /**
+     * @param size  - количество различных тел в наборе.
+     * @param cards - генератор данных карты, вызывается {@code size} раз.
+     */
+    public static PayloadCorpus of(int size, Supplier<ApiDataHelper.CardInfo> cards) {
+        byte[][] bodies = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            bodies[i] = AsyncApiHelper.encode(cards.get());
+        }
+        return new PayloadCorpus(bodies);
+    }
+
+    public byte[] get(long index) {
+        return bodies[(int) Math.floorMod(index, (long) bodies.length)];
+    }
+
+    public int size() {
+        return bodies.length;
+    }
+}
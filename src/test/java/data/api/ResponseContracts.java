@@ -0,0 +1,69 @@
+package data.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jackson.JsonLoader;
+import com.github.fge.jsonschema.core.report.ProcessingReport;
+import com.github.fge.jsonschema.main.JsonSchema;
+import com.github.fge.jsonschema.main.JsonSchemaFactory;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Assertions;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * JSON-схемы ответов API. Схема компилируется один раз и кэшируется, тело ответа разбирается один раз
+ * и используется и для проверки схемы, и для проверки полей.
+ */
+public class ResponseContracts {
+    private ResponseContracts() {
+    }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonSchemaFactory factory = JsonSchemaFactory.byDefault();
+    private static final Map<String, JsonSchema> schemas = new ConcurrentHashMap<>();
+
+    public static String getSchemaName(ApiStatus status) {
+        return status == ApiStatus.APPROVED || status == ApiStatus.DECLINED ? "payment-result.json" : "error.json";
+    }
+
+    @SneakyThrows
+    private static JsonSchema compile(String name) {
+        return factory.getJsonSchema(JsonLoader.fromResource("/schemas/" + name));
+    }
+
+    private static JsonSchema getSchema(ApiStatus status) {
+        return schemas.computeIfAbsent(getSchemaName(status), ResponseContracts::compile);
+    }
+
+    public static JsonNode parse(String body) {
+        try {
+            return mapper.readTree(body);
+        } catch (IOException e) {
+            throw new AssertionError("Response body is not valid JSON: " + body, e);
+        }
+    }
+
+    @SneakyThrows
+    public static boolean matches(ApiStatus status, JsonNode body) {
+        return getSchema(status).validInstance(body);
+    }
+
+    /**
+     * Проверяет тело ответа по схеме ожидаемого статуса и значения полей status/error.
+     */
+    @SneakyThrows
+    public static void assertBody(ApiStatus status, JsonNode body) {
+        ProcessingReport report = getSchema(status).validate(body);
+        Assertions.assertTrue(report.isSuccess(),
+                "Response does not match " + getSchemaName(status) + ": " + body + "\n" + report);
+        if (status == ApiStatus.APPROVED || status == ApiStatus.DECLINED) {
+            Assertions.assertEquals(status.getMessage(), body.path("status").asText(), "Status mismatch");
+        } else {
+            Assertions.assertEquals(status.getCode(), body.path("status").asInt(), "Status mismatch");
+            Assertions.assertEquals(status.getMessage(), body.path("error").asText(), "Error mismatch");
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package data.bd;
+
+import data.ui.DataHelper;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Заполнение таблиц payment_entity, credit_request_entity и order_entity синтетическими строками
+ * по протоколу COPY. Таблицы заполняются параллельно тремя потоками; строки всех таблиц
+ * вычисляются из номера строки, поэтому заказы ссылаются на существующие платежи и кредиты
+ * без обмена данными между потоками.
+ * <p>
+ * Запуск: {@code ./gradlew seedDatabase -Dseed.rows=10000000 -Dseed.creditShare=0.3 -Dseed.approvedShare=0.8}
+ */
+public class BulkSeeder {
+
+    public enum DateDistribution {
+        UNIFORM,
+        RECENT
+    }
+
+    private static final byte[] APPROVED = DataHelper.CommonValues.getStatusApproved().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] DECLINED = DataHelper.CommonValues.getStatusDeclined().getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "\\N".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private static final long PAYMENT_ID_SALT = 0x5041594d454e5431L;
+    private static final long CREDIT_ID_SALT = 0x4352454449545f31L;
+    private static final long GATE_ID_SALT = 0x474154455f49445fL;
+    private static final long ORDER_ID_SALT = 0x4f524445525f4944L;
+
+    private final long rows;
+    private final double creditShare;
+    private final double approvedShare;
+    private final int days;
+    private final DateDistribution dateDistribution;
+    private final long seed;
+    private final byte[] amount = Integer.toString(DataHelper.CommonValues.getAmountTravel()).getBytes(StandardCharsets.US_ASCII);
+    private final long endEpochSecond = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+    private final byte[][] datePrefixes;
+
+    public BulkSeeder(long rows, double creditShare, double approvedShare, int days,
+                      DateDistribution dateDistribution, long seed) {
+        this.rows = rows;
+        this.creditShare = creditShare;
+        this.approvedShare = approvedShare;
+        this.days = days;
+        this.dateDistribution = dateDistribution;
+        this.seed = seed;
+        this.datePrefixes = new byte[days + 1][];
+        LocalDate today = LocalDate.now();
+        for (int day = 0; day <= days; day++) {
+            datePrefixes[day] = (today.minusDays(day) + " ").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        BulkSeeder seeder = new BulkSeeder(
+                Long.getLong("seed.rows", 1_000_000L),
+                Double.parseDouble(System.getProperty("seed.creditShare", "0.3")),
+                Double.parseDouble(System.getProperty("seed.approvedShare", "0.8")),
+                Integer.getInteger("seed.days", 365),
+                DateDistribution.valueOf(System.getProperty("seed.dateDistribution", "UNIFORM")),
+                Long.getLong("seed.seed", System.nanoTime()));
+        try {
+            seeder.seed();
+        } finally {
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    public void seed() throws Exception {
+        long start = System.nanoTime();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            results.add(executor.submit(() -> copy("COPY payment_entity (id, amount, created, status, transaction_id) FROM STDIN", this::writePayment)));
+            results.add(executor.submit(() -> copy("COPY credit_request_entity (id, bank_id, created, status) FROM STDIN", this::writeCreditRequest)));
+            results.add(executor.submit(() -> copy("COPY order_entity (id, created, credit_id, payment_id) FROM STDIN", this::writeOrder)));
+            long written = 0;
+            for (Future<Long> result : results) {
+                written += result.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Seeded %d purchases (%d rows) in %.1f s, %.0f rows/s%n",
+                    rows, written, seconds, written / seconds);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface RowWriter {
+        boolean write(long index, RowBuffer buffer) throws IOException;
+    }
+
+    private long copy(String sql, RowWriter writer) throws Exception {
+        long written = 0;
+        try (Connection conn = DataSourceProvider.getConnection();
+             PGCopyOutputStream out = new PGCopyOutputStream(conn.unwrap(PGConnection.class), sql, 1 << 16)) {
+            RowBuffer buffer = new RowBuffer(out);
+            for (long i = 0; i < rows; i++) {
+                if (writer.write(i, buffer)) {
+                    written++;
+                }
+            }
+            buffer.flush();
+            out.endCopy();
+        }
+        return written;
+    }
+
+    private boolean writePayment(long index, RowBuffer buffer) throws IOException {
+        long hash = mix(seed ^ index);
+        if (isCredit(hash)) {
+            return false;
+        }
+        buffer.uuid(PAYMENT_ID_SALT ^ seed, index).tab()
+                .bytes(amount).tab()
+                .timestamp(hash).tab()
+                .bytes(isApproved(hash) ? APPROVED : DECLINED).tab()
+                .uuid(GATE_ID_SALT ^ seed, index).newLine();
+        return true;
+    }
+
+    private boolean writeCreditRequest(long index, RowBuffer buffer) throws IOException {
+        long hash = mix(seed ^ index);
+        if (!isCredit(hash)) {
+            return false;
+        }
+        buffer.uuid(CREDIT_ID_SALT ^ seed, index).tab()
+                .uuid(GATE_ID_SALT ^ seed, index).tab()
+                .timestamp(hash).tab()
+                .bytes(isApproved(hash) ? APPROVED : DECLINED).newLine();
+        return true;
+    }
+
+    private boolean writeOrder(long index, RowBuffer buffer) throws IOException {
+        long hash = mix(seed ^ index);
+        buffer.uuid(ORDER_ID_SALT ^ seed, index).tab()
+                .timestamp(hash).tab();
+        if (isCredit(hash)) {
+            buffer.uuid(GATE_ID_SALT ^ seed, index).tab().bytes(NULL);
+        } else {
+            buffer.bytes(NULL).tab().uuid(GATE_ID_SALT ^ seed, index);
+        }
+        buffer.newLine();
+        return true;
+    }
+
+    private boolean isCredit(long hash) {
+        return fraction(hash) < creditShare;
+    }
+
+    private boolean isApproved(long hash) {
+        return fraction(Long.rotateLeft(hash, 21)) < approvedShare;
+    }
+
+    private long secondsAgo(long hash) {
+        double fraction = fraction(Long.rotateLeft(hash, 42));
+        long range = days * 86_400L;
+        if (dateDistribution == DateDistribution.RECENT) {
+            return (long) (range * fraction * fraction * fraction);
+        }
+        return (long) (range * fraction);
+    }
+
+    private static double fraction(long hash) {
+        return (hash >>> 11) * 0x1.0p-53;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private final class RowBuffer {
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+
+        RowBuffer(OutputStream out) {
+            this.out = out;
+        }
+
+        RowBuffer bytes(byte[] value) {
+            System.arraycopy(value, 0, buffer, position, value.length);
+            position += value.length;
+            return this;
+        }
+
+        RowBuffer tab() {
+            buffer[position++] = '\t';
+            return this;
+        }
+
+        void newLine() throws IOException {
+            buffer[position++] = '\n';
+            if (position > buffer.length - 256) {
+                flush();
+            }
+        }
+
+        RowBuffer uuid(long high, long index) {
+            long mostSig = mix(high + index);
+            long leastSig = mix(~high ^ index);
+            hex(mostSig >>> 32, 8).dash();
+            hex(mostSig >>> 16, 4).dash();
+            hex(mostSig, 4).dash();
+            hex(leastSig >>> 48, 4).dash();
+            return hex(leastSig, 12);
+        }
+
+        RowBuffer timestamp(long hash) {
+            long epochSecond = endEpochSecond - secondsAgo(hash);
+            long secondOfDay = Math.floorMod(epochSecond, 86_400L);
+            int day = (int) (Math.floorDiv(endEpochSecond, 86_400L) - Math.floorDiv(epochSecond, 86_400L));
+            bytes(datePrefixes[Math.min(day, days)]);
+            twoDigits(secondOfDay / 3600).colon();
+            twoDigits(secondOfDay / 60 % 60).colon();
+            return twoDigits(secondOfDay % 60);
+        }
+
+        private RowBuffer hex(long value, int digits) {
+            for (int i = digits - 1; i >= 0; i--) {
+                buffer[position + i] = HEX[(int) (value & 0xf)];
+                value >>>= 4;
+            }
+            position += digits;
+            return this;
+        }
+
+        private RowBuffer twoDigits(long value) {
+            buffer[position++] = (byte) ('0' + value / 10);
+            buffer[position++] = (byte) ('0' + value % 10);
+            return this;
+        }
+
+        private void dash() {
+            buffer[position++] = '-';
+        }
+
+        private void colon() {
+            buffer[position++] = ':';
+        }
+
+        void flush() throws IOException {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
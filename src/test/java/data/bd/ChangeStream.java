@@ -0,0 +1,271 @@
+package data.bd;
+
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.PGReplicationStream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Поток изменений таблиц приложения через логическое декодирование PostgreSQL (плагин test_decoding).
+ * <p>
+ * Требует {@code wal_level=logical} (см. docker-compose.yml). Слот репликации временный и удаляется
+ * вместе с соединением. Ожидание строки не опрашивает базу: событие приходит из потока репликации.
+ * Прошедшие события не хранятся, ожидание видит только вставки после своей регистрации.
+ */
+public class ChangeStream implements AutoCloseable {
+
+    private static final Pattern HEADER = Pattern.compile("^table (\\S+)\\.(\\S+): (INSERT|UPDATE|DELETE): ?(.*)$");
+    private static final Pattern COLUMN = Pattern.compile("(\\w+)\\[[^\\]]+\\]:('(?:[^']|'')*'|\\S+)");
+
+    private static ChangeStream instance;
+
+    private final Connection connection;
+    private final PGReplicationStream stream;
+    private final Thread reader;
+    private final List<Waiter> waiters = new ArrayList<>();
+    private final Map<String, LongAdder> inserts = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+
+    private ChangeStream(Connection connection, PGReplicationStream stream) {
+        this.connection = connection;
+        this.stream = stream;
+        this.reader = new Thread(this::readLoop, "change-stream");
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    /**
+     * Общий для форка поток изменений. Запускается при первом обращении.
+     */
+    public static synchronized ChangeStream getInstance() {
+        if (instance == null) {
+            instance = open(DataSourceProvider.getJdbcUrl(), DataSourceProvider.getUser(), DataSourceProvider.getPassword());
+        }
+        return instance;
+    }
+
+    /**
+     * Закрывает общий поток; временный слот репликации удаляется вместе с соединением.
+     *
+     * @return {@code true}, если поток был открыт.
+     */
+    public static synchronized boolean shutdown() {
+        if (instance == null) {
+            return false;
+        }
+        instance.close();
+        instance = null;
+        return true;
+    }
+
+    @SneakyThrows
+    public static ChangeStream open(String jdbcUrl, String user, String password) {
+        Properties props = new Properties();
+        PGProperty.USER.set(props, user);
+        PGProperty.PASSWORD.set(props, password);
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(props, "10");
+        PGProperty.REPLICATION.set(props, "database");
+        PGProperty.PREFER_QUERY_MODE.set(props, "simple");
+        Connection connection = DriverManager.getConnection(jdbcUrl, props);
+        PGConnection replication = connection.unwrap(PGConnection.class);
+        String slot = "test_stream_" + ProcessHandle.current().pid() + "_" + System.nanoTime();
+        replication.getReplicationAPI()
+                .createReplicationSlot()
+                .logical()
+                .withSlotName(slot)
+                .withOutputPlugin("test_decoding")
+                .withTemporaryOption()
+                .make();
+        PGReplicationStream stream = replication.getReplicationAPI()
+                .replicationStream()
+                .logical()
+                .withSlotName(slot)
+                .withSlotOption("include-xids", false)
+                .withSlotOption("skip-empty-xacts", true)
+                .withStatusInterval(1, TimeUnit.SECONDS)
+                .start();
+        return new ChangeStream(connection, stream);
+    }
+
+    private void readLoop() {
+        try {
+            while (running) {
+                ByteBuffer message = stream.read();
+                if (message == null) {
+                    continue;
+                }
+                String text = new String(message.array(), message.arrayOffset() + message.position(),
+                        message.remaining(), StandardCharsets.UTF_8);
+                RowEvent event = parse(text);
+                if (event != null) {
+                    dispatch(event);
+                }
+                stream.setAppliedLSN(stream.getLastReceiveLSN());
+                stream.setFlushedLSN(stream.getLastReceiveLSN());
+            }
+        } catch (SQLException e) {
+            if (running) {
+                failWaiters(e);
+            }
+        }
+    }
+
+    static RowEvent parse(String text) {
+        Matcher header = HEADER.matcher(text);
+        if (!header.matches()) {
+            return null;
+        }
+        Map<String, String> columns = new HashMap<>();
+        Matcher column = COLUMN.matcher(header.group(4));
+        while (column.find()) {
+            String value = column.group(2);
+            if (value.startsWith("'")) {
+                value = value.substring(1, value.length() - 1).replace("''", "'");
+            } else if ("null".equals(value)) {
+                value = null;
+            }
+            columns.put(column.group(1), value);
+        }
+        return new RowEvent(header.group(2), header.group(3), Collections.unmodifiableMap(columns), System.nanoTime());
+    }
+
+    private void dispatch(RowEvent event) {
+        if ("INSERT".equals(event.getOperation())) {
+            inserts.computeIfAbsent(event.getTable(), t -> new LongAdder()).increment();
+        }
+        synchronized (this) {
+            Iterator<Waiter> iterator = waiters.iterator();
+            while (iterator.hasNext()) {
+                Waiter waiter = iterator.next();
+                if (waiter.test(event)) {
+                    waiter.future.complete(event);
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private synchronized void failWaiters(Throwable cause) {
+        waiters.forEach(waiter -> waiter.future.completeExceptionally(cause));
+        waiters.clear();
+    }
+
+    /**
+     * Событие вставки строки в таблицу, подходящей под условие. Учитываются только события,
+     * пришедшие после вызова метода, поэтому ожидание нужно зарегистрировать до отправки запроса.
+     */
+    public synchronized CompletableFuture<RowEvent> expectInsert(String table, Predicate<RowEvent> condition) {
+        Waiter waiter = new Waiter(table, condition);
+        waiters.add(waiter);
+        return waiter.future;
+    }
+
+    /**
+     * Регистрирует ожидание вставки, выполняет действие (например, отправку запроса) и ждёт событие.
+     */
+    public RowEvent awaitInsert(String table, Predicate<RowEvent> condition, Duration timeout, Runnable action) {
+        CompletableFuture<RowEvent> future = expectInsert(table, condition);
+        try {
+            action.run();
+        } catch (RuntimeException | Error e) {
+            cancel(future);
+            throw e;
+        }
+        return await(future, timeout, "insert into " + table);
+    }
+
+    /**
+     * Ждёт событие, зарегистрированное через {@link #expectInsert}; ожидание снимается в любом случае.
+     */
+    @SneakyThrows
+    public RowEvent await(CompletableFuture<RowEvent> future, Duration timeout, String description) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new AssertionError("No " + description + " within " + timeout);
+        } finally {
+            cancel(future);
+        }
+    }
+
+    /**
+     * Снимает ожидание, которое больше не нужно.
+     */
+    public synchronized void cancel(CompletableFuture<RowEvent> future) {
+        waiters.removeIf(waiter -> waiter.future == future);
+    }
+
+    /**
+     * Количество вставок в таблицу с момента запуска потока; используется как счётчик пропускной способности.
+     */
+    public long getInsertCount(String table) {
+        LongAdder count = inserts.get(table);
+        return count == null ? 0 : count.sum();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        try {
+            stream.close();
+        } catch (SQLException ignored) {
+            // соединение всё равно закрывается ниже
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // слот временный и удаляется сервером
+        }
+        reader.interrupt();
+    }
+
+    @Value
+    public static class RowEvent {
+        String table;
+        String operation;
+        Map<String, String> columns;
+        long receivedNanos;
+
+        public String get(String column) {
+            return columns.get(column);
+        }
+    }
+
+    private static class Waiter {
+        final String table;
+        final Predicate<RowEvent> condition;
+        final CompletableFuture<RowEvent> future = new CompletableFuture<>();
+
+        Waiter(String table, Predicate<RowEvent> condition) {
+            this.table = table;
+            this.condition = condition;
+        }
+
+        boolean test(RowEvent event) {
+            return "INSERT".equals(event.getOperation()) && table.equals(event.getTable()) && condition.test(event);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package data.bd;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Epic("Test Infrastructure")
+@Feature("Database Change Stream")
+@Owner("Veronika Obukhova")
+@Tag("UNIT")
+public class ChangeStreamTest {
+
+    @Test
+    @Story("Row parsing")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should parse table, operation and quoted columns of an insert")
+    void shouldParseInsert() {
+        ChangeStream.RowEvent event = ChangeStream.parse("table public.payment_entity: INSERT: "
+                + "id[character varying]:'6f1c' amount[integer]:4500000 "
+                + "status[character varying]:'APPROVED' transaction_id[character varying]:'a8c1-42'");
+
+        assertNotNull(event);
+        assertEquals("payment_entity", event.getTable());
+        assertEquals("INSERT", event.getOperation());
+        assertEquals("6f1c", event.get("id"));
+        assertEquals("4500000", event.get("amount"));
+        assertEquals("APPROVED", event.get("status"));
+        assertEquals("a8c1-42", event.get("transaction_id"));
+    }
+
+    @Test
+    @Story("Row parsing")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should unescape doubled quotes and keep spaces inside quoted values")
+    void shouldUnescapeQuotedValue() {
+        ChangeStream.RowEvent event = ChangeStream.parse("table public.credit_request_entity: INSERT: "
+                + "bank_id[character varying]:'O''Brien bank' status[character varying]:''''");
+
+        assertNotNull(event);
+        assertEquals("O'Brien bank", event.get("bank_id"));
+        assertEquals("'", event.get("status"));
+    }
+
+    @Test
+    @Story("Row parsing")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should map unquoted null to null")
+    void shouldParseNull() {
+        ChangeStream.RowEvent event = ChangeStream.parse("table public.order_entity: INSERT: "
+                + "id[character varying]:'b7' credit_id[character varying]:null payment_id[character varying]:'a8c1'");
+
+        assertNotNull(event);
+        assertTrue(event.getColumns().containsKey("credit_id"));
+        assertNull(event.get("credit_id"));
+        assertEquals("a8c1", event.get("payment_id"));
+    }
+
+    @Test
+    @Story("Row parsing")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Should ignore transaction boundaries")
+    void shouldIgnoreNonRowLines() {
+        assertNull(ChangeStream.parse("BEGIN 742"));
+        assertNull(ChangeStream.parse("COMMIT 742"));
+    }
+}
@@ -0,0 +1,96 @@
+package data.bd;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import data.env.WorkerEnvironment;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public class DataSourceProvider {
+    private DataSourceProvider() {
+    }
+
+    private static final PoolMetrics metrics = new PoolMetrics();
+    private static volatile HikariDataSource dataSource;
+
+    /**
+     * Пул соединений, общий для всех тестов внутри одного JVM-форка.
+     * Создаётся лениво при первом обращении к БД.
+     */
+    public static Connection getConnection() throws SQLException {
+        return getDataSource().getConnection();
+    }
+
+    static HikariDataSource getDataSource() {
+        HikariDataSource ds = dataSource;
+        if (ds == null) {
+            synchronized (DataSourceProvider.class) {
+                ds = dataSource;
+                if (ds == null) {
+                    ds = new HikariDataSource(buildConfig());
+                    dataSource = ds;
+                }
+            }
+        }
+        return ds;
+    }
+
+    private static HikariConfig buildConfig() {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName("sql-helper");
+        config.setJdbcUrl(getJdbcUrl());
+        config.setUsername(getUser());
+        config.setPassword(getPassword());
+        config.setMaximumPoolSize(Integer.getInteger("db.pool.size", 4));
+        config.setMinimumIdle(Integer.getInteger("db.pool.minIdle", 1));
+        config.setConnectionTimeout(Long.getLong("db.pool.connectionTimeoutMs", 10_000L));
+        config.setLeakDetectionThreshold(Long.getLong("db.pool.leakDetectionMs", 5_000L));
+        String validationQuery = System.getProperty("db.pool.validationQuery");
+        if (validationQuery != null && !validationQuery.isBlank()) {
+            config.setConnectionTestQuery(validationQuery);
+        }
+        config.setMetricsTrackerFactory(metrics);
+        return config;
+    }
+
+    public static String getJdbcUrl() {
+        return WorkerEnvironment.getJdbcUrl();
+    }
+
+    public static String getUser() {
+        return System.getProperty("db.user", "user");
+    }
+
+    public static String getPassword() {
+        return System.getProperty("db.password", "pass");
+    }
+
+    /**
+     * Сбрасывает простаивающие соединения пула, например после пересоздания базы.
+     */
+    static void evictConnections() {
+        HikariDataSource ds = dataSource;
+        if (ds != null && ds.getHikariPoolMXBean() != null) {
+            ds.getHikariPoolMXBean().softEvictConnections();
+        }
+    }
+
+    public static PoolMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Закрывает пул, если он был создан. Вызывается по окончании прогона тестов.
+     */
+    public static synchronized void shutdown() {
+        HikariDataSource ds = dataSource;
+        dataSource = null;
+        if (ds != null && !ds.isClosed()) {
+            ds.close();
+            System.out.println(metrics.summary());
+            System.out.println(QueryMetrics.summary());
+            System.out.println(DatabaseReset.summary());
+        }
+    }
+}
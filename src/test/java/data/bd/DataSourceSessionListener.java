@@ -0,0 +1,13 @@
+package data.bd;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+public class DataSourceSessionListener implements LauncherSessionListener {
+
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        ChangeStream.shutdown();
+        DataSourceProvider.shutdown();
+    }
+}
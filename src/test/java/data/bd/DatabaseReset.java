@@ -0,0 +1,164 @@
+package data.bd;
+
+import data.env.WorkerEnvironment;
+import lombok.SneakyThrows;
+import org.apache.commons.dbutils.QueryRunner;
+import org.apache.commons.dbutils.handlers.ScalarHandler;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Очистка таблиц приложения выбранной стратегией ({@code -Ddb.reset.strategy}) с замером времени каждого сброса.
+ */
+public class DatabaseReset {
+    private DatabaseReset() {
+    }
+
+    private static final QueryRunner runner = new QueryRunner();
+    private static final Pattern TEMPLATE_NAME = Pattern.compile("[\\w$-]{1,63}");
+    private static final Map<ResetStrategy, long[]> timings = new EnumMap<>(ResetStrategy.class);
+
+    public static ResetStrategy getStrategy() {
+        return ResetStrategy.valueOf(System.getProperty("db.reset.strategy", ResetStrategy.TRUNCATE.name()));
+    }
+
+    @SneakyThrows
+    public static void reset(ResetStrategy strategy) {
+        long start = System.nanoTime();
+        switch (strategy) {
+            case DELETE:
+                delete();
+                break;
+            case TRUNCATE:
+                truncate();
+                break;
+            case TEMPLATE:
+                if (!cloneTemplate()) {
+                    return;
+                }
+                break;
+        }
+        record(strategy, System.nanoTime() - start);
+    }
+
+    private static void delete() throws SQLException {
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            runner.update(conn, "DELETE FROM payment_entity;");
+            runner.update(conn, "DELETE FROM order_entity;");
+            runner.update(conn, "DELETE FROM credit_request_entity;");
+        }
+    }
+
+    private static void truncate() throws SQLException {
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            runner.update(conn, "TRUNCATE payment_entity, order_entity, credit_request_entity RESTART IDENTITY;");
+        }
+    }
+
+    /**
+     * Пересоздаёт базу из шаблона. Если шаблона ещё нет, он снимается с очищенной рабочей базы; такой
+     * первый вызов не считается сбросом и не попадает в замеры.
+     * <p>
+     * Удаление базы разрывает все её соединения, в том числе соединения приложения, поэтому стратегия
+     * допускается только с отдельной базой воркера ({@code -Denv.isolation=database}). Открытый
+     * {@link ChangeStream} держит в базе слот репликации и мешает её удалению: поток закрывается
+     * перед сбросом и открывается заново после него.
+     *
+     * @return {@code false}, если вместо сброса был создан шаблон.
+     */
+    private static boolean cloneTemplate() throws SQLException {
+        if (!WorkerEnvironment.isIsolated()) {
+            throw new IllegalStateException("db.reset.strategy=TEMPLATE drops the database the application is connected to; "
+                    + "use it only with -Denv.isolation=database");
+        }
+        String database = getDatabaseName(DataSourceProvider.getJdbcUrl());
+        String template = getTemplateName(database);
+        boolean streaming = ChangeStream.shutdown();
+        DataSourceProvider.evictConnections();
+        try (Connection conn = getMaintenanceConnection()) {
+            Long exists = runner.query(conn, "SELECT COUNT(*) FROM pg_database WHERE datname = ?;",
+                    new ScalarHandler<>(), template);
+            if (exists == 0) {
+                truncate();
+                DataSourceProvider.evictConnections();
+                terminateConnections(conn, database);
+                runner.update(conn, "CREATE DATABASE " + quoteIdentifier(template) + " TEMPLATE " + quoteIdentifier(database) + ";");
+                return false;
+            }
+            runner.update(conn, "DROP DATABASE IF EXISTS " + quoteIdentifier(database) + " WITH (FORCE);");
+            runner.update(conn, "CREATE DATABASE " + quoteIdentifier(database) + " TEMPLATE " + quoteIdentifier(template) + ";");
+            return true;
+        } finally {
+            if (streaming) {
+                ChangeStream.getInstance();
+            }
+        }
+    }
+
+    private static void terminateConnections(Connection conn, String database) throws SQLException {
+        runner.query(conn, "SELECT pg_terminate_backend(pid) FROM pg_stat_activity "
+                + "WHERE datname = ? AND pid <> pg_backend_pid();", rs -> null, database);
+    }
+
+    private static Connection getMaintenanceConnection() throws SQLException {
+        String url = DataSourceProvider.getJdbcUrl();
+        String database = getDatabaseName(url);
+        String maintenanceUrl = url.replaceFirst("/" + database + "(\\?|$)", "/postgres$1");
+        return DriverManager.getConnection(maintenanceUrl, DataSourceProvider.getUser(), DataSourceProvider.getPassword());
+    }
+
+    /**
+     * Имя базы-шаблона из {@code -Ddb.reset.template}, по умолчанию {@code <имя базы>_template}.
+     * Допускаются буквы, цифры, {@code _}, {@code $} и {@code -}, не длиннее 63 символов.
+     */
+    public static String getTemplateName(String database) {
+        String template = System.getProperty("db.reset.template", database + "_template");
+        if (!TEMPLATE_NAME.matcher(template).matches()) {
+            throw new IllegalArgumentException("Invalid db.reset.template: '" + template + "'");
+        }
+        if (template.equals(database)) {
+            throw new IllegalArgumentException("db.reset.template must differ from the database name: " + database);
+        }
+        return template;
+    }
+
+    /**
+     * Имя в двойных кавычках для подстановки в DDL; кавычки внутри имени удваиваются.
+     */
+    public static String quoteIdentifier(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    public static String getDatabaseName(String jdbcUrl) {
+        String path = jdbcUrl.substring(jdbcUrl.lastIndexOf('/') + 1);
+        int params = path.indexOf('?');
+        return params < 0 ? path : path.substring(0, params);
+    }
+
+    private static synchronized void record(ResetStrategy strategy, long nanos) {
+        long[] stats = timings.computeIfAbsent(strategy, s -> new long[3]);
+        stats[0]++;
+        stats[1] += nanos;
+        stats[2] = Math.max(stats[2], nanos);
+    }
+
+    public static synchronized String summary() {
+        StringBuilder result = new StringBuilder("DB reset timings:");
+        if (timings.isEmpty()) {
+            result.append(" no resets");
+        }
+        timings.forEach((strategy, stats) -> result.append(String.format("%n  %-8s %5d runs, avg %.2f ms, max %.2f ms",
+                strategy, stats[0], toMillis(stats[1] / stats[0]), toMillis(stats[2]))));
+        return result.toString();
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
@@ -0,0 +1,96 @@
+package data.bd;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Хеш-таблица с открытой адресацией вне кучи: 128-битный ключ и 64-битное значение на слот.
+ * Пустым считается слот с нулевым значением, поэтому значение записи не должно быть нулевым.
+ */
+class OffHeapKeyTable {
+    private static final int SLOT_BYTES = 24;
+    private static final long MAX_SLOTS = Integer.MAX_VALUE / SLOT_BYTES;
+
+    private final ByteBuffer buffer;
+    private final int mask;
+    private int size;
+
+    OffHeapKeyTable(long expectedKeys) {
+        long slots = Long.highestOneBit(Math.max(16, (long) (expectedKeys / 0.7)) - 1) << 1;
+        if (slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Too many keys for one off-heap table: " + expectedKeys);
+        }
+        this.buffer = ByteBuffer.allocateDirect((int) slots * SLOT_BYTES);
+        this.mask = (int) slots - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long offHeapBytes() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Номер слота ключа; если ключа нет, возвращается {@code -(свободный слот) - 1}.
+     */
+    int find(long high, long low) {
+        int slot = (int) (spread(high ^ Long.rotateLeft(low, 32))) & mask;
+        while (true) {
+            int offset = slot * SLOT_BYTES;
+            if (buffer.getLong(offset + 16) == 0) {
+                return -slot - 1;
+            }
+            if (buffer.getLong(offset) == high && buffer.getLong(offset + 8) == low) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Слот ключа; отсутствующий ключ добавляется с указанным начальным значением.
+     */
+    int insert(long high, long low, long initialValue) {
+        int slot = find(high, low);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size + 1 > capacity() * 0.9) {
+            throw new IllegalStateException("Off-heap table is full: " + size + " keys");
+        }
+        slot = -slot - 1;
+        int offset = slot * SLOT_BYTES;
+        buffer.putLong(offset, high);
+        buffer.putLong(offset + 8, low);
+        buffer.putLong(offset + 16, initialValue);
+        size++;
+        return slot;
+    }
+
+    long value(int slot) {
+        return buffer.getLong(slot * SLOT_BYTES + 16);
+    }
+
+    void value(int slot, long value) {
+        buffer.putLong(slot * SLOT_BYTES + 16, value);
+    }
+
+    long high(int slot) {
+        return buffer.getLong(slot * SLOT_BYTES);
+    }
+
+    long low(int slot) {
+        return buffer.getLong(slot * SLOT_BYTES + 8);
+    }
+
+    private static long spread(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+}
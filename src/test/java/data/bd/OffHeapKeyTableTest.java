@@ -0,0 +1,114 @@
+package data.bd;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Epic("Test Infrastructure")
+@Feature("Database Reconciliation")
+@Owner("Veronika Obukhova")
+@Tag("UNIT")
+public class OffHeapKeyTableTest {
+
+    @Test
+    @Story("Key table")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should keep colliding keys in separate slots")
+    void shouldProbePastCollisions() {
+        OffHeapKeyTable table = new OffHeapKeyTable(16);
+        int keys = table.capacity() * 3 / 4;
+        Set<Integer> slots = new HashSet<>();
+        for (long i = 1; i <= keys; i++) {
+            slots.add(table.insert(i, -i, i));
+        }
+
+        assertEquals(keys, slots.size(), "Every key should get its own slot");
+        assertEquals(keys, table.size());
+        for (long i = 1; i <= keys; i++) {
+            int slot = table.find(i, -i);
+            assertTrue(slot >= 0, "Key " + i + " should be found");
+            assertEquals(i, table.value(slot));
+            assertEquals(i, table.high(slot));
+            assertEquals(-i, table.low(slot));
+        }
+        assertTrue(table.find(keys + 1, -(keys + 1)) < 0, "Missing key should not be found");
+    }
+
+    @Test
+    @Story("Key table")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should return the existing slot for a duplicate key and keep its value")
+    void shouldReturnExistingSlotForDuplicate() {
+        OffHeapKeyTable table = new OffHeapKeyTable(16);
+        int slot = table.insert(42, 7, 1);
+        table.value(slot, 5);
+
+        assertEquals(slot, table.insert(42, 7, 1));
+        assertEquals(5, table.value(slot), "Initial value should not overwrite an existing key");
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    @Story("Key table")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should reject inserts beyond the load limit and keep existing keys")
+    void shouldRejectInsertWhenFull() {
+        OffHeapKeyTable table = new OffHeapKeyTable(1);
+        int limit = (int) (table.capacity() * 0.9);
+        for (long i = 1; i <= limit; i++) {
+            table.insert(i, i, i);
+        }
+
+        assertThrows(IllegalStateException.class, () -> table.insert(limit + 1, limit + 1, 1));
+        assertEquals(limit, table.size());
+        assertTrue(table.find(1, 1) >= 0);
+        assertEquals(table.find(limit, limit), table.insert(limit, limit, 1), "Existing key is still found in a full table");
+    }
+
+    @Test
+    @Story("Key table")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Should refuse a table larger than one direct buffer")
+    void shouldRefuseTooManyKeys() {
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapKeyTable(Integer.MAX_VALUE));
+    }
+
+    @Test
+    @Story("Key encoding")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should split UUID keys into their two halves")
+    void shouldEncodeUuidKey() {
+        String id = "0123abcd-4567-89ef-fedc-ba9876543210";
+
+        assertEquals(0x0123abcd456789efL, Reconciliation.keyHigh(id));
+        assertEquals(0xfedcba9876543210L, Reconciliation.keyLow(id));
+    }
+
+    @Test
+    @Story("Key encoding")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should hash non-UUID keys to distinct stable keys")
+    void shouldEncodeNonUuidKeys() {
+        String[] ids = {"bank-1", "bank-2", "1bank", "0123abcd-4567-89ef-fedc-ba987654321g", ""};
+        OffHeapKeyTable table = new OffHeapKeyTable(ids.length);
+        for (String id : ids) {
+            table.insert(Reconciliation.keyHigh(id), Reconciliation.keyLow(id), 1);
+        }
+
+        assertEquals(ids.length, table.size(), "Different ids should not collapse into one key");
+        assertEquals(Reconciliation.keyHigh("bank-1"), Reconciliation.keyHigh("bank-1"));
+        assertNotEquals(Reconciliation.keyHigh("bank-1"), Reconciliation.keyLow("bank-1"));
+        for (String id : ids) {
+            assertTrue(table.find(Reconciliation.keyHigh(id), Reconciliation.keyLow(id)) >= 0, id);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package data.bd;
+
+import io.qameta.allure.Step;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.function.Executable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Набор ожиданий к платежу и связанному с ним заказу, которые проверяются одним запросом к БД.
+ * Все расхождения выводятся вместе.
+ */
+public class PaymentExpectation {
+
+    private static final Duration INSERT_TIMEOUT = Duration.ofSeconds(Long.getLong("db.insertTimeoutSec", 15L));
+
+    private final SQLHelper.RequestTrace trace;
+    private final ChangeStream stream;
+    private final CompletableFuture<ChangeStream.RowEvent> paymentInsert;
+    private final CompletableFuture<ChangeStream.RowEvent> orderInsert;
+    private String status;
+    private Integer amount;
+    private boolean linkedToOrder;
+
+    PaymentExpectation(SQLHelper.RequestTrace trace) {
+        this.trace = trace;
+        this.stream = null;
+        this.paymentInsert = null;
+        this.orderInsert = null;
+    }
+
+    /**
+     * Ожидания к платежу, вставка которого ещё не произошла: события вставки платежа и заказа
+     * приходят из {@link ChangeStream}, а строка проверяется по её {@code transaction_id}.
+     */
+    PaymentExpectation(ChangeStream stream) {
+        this.trace = null;
+        this.stream = stream;
+        this.paymentInsert = stream.expectInsert("payment_entity", event -> true);
+        this.orderInsert = stream.expectInsert("order_entity", event -> event.get("payment_id") != null);
+    }
+
+    public PaymentExpectation status(String expectedStatus) {
+        this.status = expectedStatus;
+        return this;
+    }
+
+    public PaymentExpectation amount(int expectedAmount) {
+        this.amount = expectedAmount;
+        return this;
+    }
+
+    public PaymentExpectation linkedToOrder() {
+        this.linkedToOrder = true;
+        return this;
+    }
+
+    @Step("Verify payment: status {this.status}, amount {this.amount}, linked to order {this.linkedToOrder}")
+    public void verify() {
+        List<SQLHelper.PaymentWithOrders> rows = trace == null
+                ? SQLHelper.getPaymentWithOrders(awaitTransactionId())
+                : SQLHelper.getPaymentsWithOrders(trace);
+        Assertions.assertEquals(1, rows.size(), "Expected exactly one payment, but found: " + rows);
+        SQLHelper.PaymentWithOrders payment = rows.get(0);
+
+        List<Executable> checks = new ArrayList<>();
+        if (status != null) {
+            checks.add(() -> Assertions.assertEquals(status, payment.getStatus(), "Payment status mismatch"));
+        }
+        if (amount != null) {
+            checks.add(() -> Assertions.assertEquals(amount, payment.getAmount(), "Payment amount mismatch"));
+        }
+        if (linkedToOrder) {
+            checks.add(() -> Assertions.assertEquals(1L, payment.getOrderCount(),
+                    "Expected exactly one order linked to payment " + payment.getTransactionId()));
+        }
+        Assertions.assertAll("Payment " + payment.getTransactionId(), checks);
+    }
+
+    private String awaitTransactionId() {
+        try {
+            String transactionId = stream.await(paymentInsert, INSERT_TIMEOUT, "insert into payment_entity")
+                    .get("transaction_id");
+            if (linkedToOrder) {
+                stream.await(orderInsert, INSERT_TIMEOUT, "order insert linked to a payment");
+            }
+            return transactionId;
+        } finally {
+            stream.cancel(orderInsert);
+        }
+    }
+}
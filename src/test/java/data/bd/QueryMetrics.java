@@ -0,0 +1,68 @@
+package data.bd;
+
+import io.qameta.allure.Allure;
+import io.qameta.allure.AllureLifecycle;
+import io.qameta.allure.model.Parameter;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время запросов SQLHelper по видам запросов: получение соединения, выполнение и преобразование результата.
+ * Время каждого запроса добавляется параметром к текущему шагу Allure, сводка выводится в конце прогона.
+ */
+public class QueryMetrics {
+    private QueryMetrics() {
+    }
+
+    private static final Map<String, Stage> stages = new ConcurrentHashMap<>();
+
+    static void record(String kind, long acquireNanos, long executeNanos, long mapNanos) {
+        Stage stage = stages.computeIfAbsent(kind, k -> new Stage());
+        stage.acquire.recordValue(toMicros(acquireNanos));
+        stage.execute.recordValue(toMicros(executeNanos));
+        stage.map.recordValue(toMicros(mapNanos));
+        stage.total.recordValue(toMicros(acquireNanos + executeNanos + mapNanos));
+        attachToStep(kind, acquireNanos, executeNanos, mapNanos);
+    }
+
+    private static void attachToStep(String kind, long acquireNanos, long executeNanos, long mapNanos) {
+        AllureLifecycle lifecycle = Allure.getLifecycle();
+        Optional<String> current = lifecycle.getCurrentTestCaseOrStep();
+        if (current.isEmpty() || current.equals(lifecycle.getCurrentTestCase())) {
+            return;
+        }
+        String value = String.format("acquire %d us, execute %d us, map %d us",
+                toMicros(acquireNanos), toMicros(executeNanos), toMicros(mapNanos));
+        lifecycle.updateStep(step -> step.getParameters().add(new Parameter().setName("SQL " + kind).setValue(value)));
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+    }
+
+    public static String summary() {
+        StringBuilder result = new StringBuilder(String.format("SQLHelper query latency, us:%n  %-26s %7s %10s %8s %8s %8s   %s%n",
+                "query", "count", "total ms", "p50", "p95", "p99", "avg acquire / execute / map"));
+        new TreeMap<>(stages).forEach((kind, stage) -> {
+            Histogram total = stage.total.copy();
+            result.append(String.format("  %-26s %7d %10.1f %8d %8d %8d   %.0f / %.0f / %.0f%n",
+                    kind, total.getTotalCount(), total.getMean() * total.getTotalCount() / 1000,
+                    total.getValueAtPercentile(50), total.getValueAtPercentile(95), total.getValueAtPercentile(99),
+                    stage.acquire.getMean(), stage.execute.getMean(), stage.map.getMean()));
+        });
+        return result.toString();
+    }
+
+    private static class Stage {
+        final Histogram acquire = new ConcurrentHistogram(3);
+        final Histogram execute = new ConcurrentHistogram(3);
+        final Histogram map = new ConcurrentHistogram(3);
+        final Histogram total = new ConcurrentHistogram(3);
+    }
+}
@@ -0,0 +1,295 @@
+package data.bd;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Сверка всех платежей и кредитных заявок с заказами: табличный вариант проверки
+ * {@code PaymentExpectation.linkedToOrder()}.
+ * <p>
+ * Таблицы читаются серверными курсорами ({@code fetchSize}), а ключи платежей и заявок хранятся
+ * во внешней по отношению к куче хеш-таблице (24 байта на ключ), поэтому потребление кучи не зависит
+ * от размера таблиц. Запуск: {@code ./gradlew reconcileDatabase}.
+ */
+public class Reconciliation {
+
+    private static final int FETCH_SIZE = Integer.getInteger("reconcile.fetchSize", 10_000);
+    private static final int SAMPLES = Integer.getInteger("reconcile.samples", 10);
+
+    private static final long KIND_PAYMENT = 1;
+    private static final long KIND_CREDIT = 2;
+    private static final long STATUS_APPROVED = 1 << 2;
+    private static final long STATUS_DECLINED = 2 << 2;
+    private static final long STATUS_OTHER = 3 << 2;
+    private static final int ENTITY_COUNT_SHIFT = 8;
+    private static final int ORDER_COUNT_SHIFT = 16;
+    private static final long COUNTER_MAX = 0xff;
+
+    private final Report report = new Report();
+
+    public static void main(String[] args) throws SQLException {
+        try {
+            Report report = run();
+            System.out.println(report);
+            if (!report.isClean()) {
+                System.exit(1);
+            }
+        } finally {
+            DataSourceProvider.shutdown();
+        }
+    }
+
+    public static Report run() throws SQLException {
+        return new Reconciliation().reconcile();
+    }
+
+    private Report reconcile() throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            conn.setAutoCommit(false);
+            long keys = count(conn, "SELECT (SELECT COUNT(*) FROM payment_entity) + (SELECT COUNT(*) FROM credit_request_entity);");
+            OffHeapKeyTable table = new OffHeapKeyTable(keys);
+            report.offHeapBytes = table.offHeapBytes();
+
+            stream(conn, "SELECT transaction_id, status FROM payment_entity;",
+                    rs -> addEntity(table, rs.getString(1), rs.getString(2), KIND_PAYMENT));
+            stream(conn, "SELECT bank_id, status FROM credit_request_entity;",
+                    rs -> addEntity(table, rs.getString(1), rs.getString(2), KIND_CREDIT));
+            stream(conn, "SELECT payment_id, credit_id FROM order_entity;",
+                    rs -> addOrder(table, rs.getString(1), rs.getString(2)));
+            conn.commit();
+
+            scan(table);
+        }
+        report.millis = (System.nanoTime() - start) / 1_000_000;
+        return report;
+    }
+
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    private static long count(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(sql);
+             ResultSet rs = statement.executeQuery()) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static void stream(Connection conn, String sql, RowConsumer consumer) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(sql)) {
+            statement.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    consumer.accept(rs);
+                }
+            }
+        }
+    }
+
+    private void addEntity(OffHeapKeyTable table, String id, String status, long kind) {
+        if (kind == KIND_PAYMENT) {
+            report.payments++;
+        } else {
+            report.creditRequests++;
+        }
+        if (id == null) {
+            report.entitiesWithoutId++;
+            return;
+        }
+        long high = keyHigh(id);
+        long low = keyLow(id);
+        int slot = table.insert(high, low, kind | statusBits(status));
+        long value = table.value(slot);
+        if ((value & 3) != kind) {
+            report.kindMismatches++;
+            report.sample(report.kindMismatchSamples, id);
+        }
+        table.value(slot, increment(value, ENTITY_COUNT_SHIFT));
+    }
+
+    private void addOrder(OffHeapKeyTable table, String paymentId, String creditId) {
+        report.orders++;
+        if (paymentId == null && creditId == null) {
+            report.ordersWithoutLink++;
+            return;
+        }
+        if (paymentId != null) {
+            linkOrder(table, paymentId, KIND_PAYMENT);
+        }
+        if (creditId != null) {
+            linkOrder(table, creditId, KIND_CREDIT);
+        }
+    }
+
+    private void linkOrder(OffHeapKeyTable table, String id, long kind) {
+        int slot = table.find(keyHigh(id), keyLow(id));
+        if (slot < 0) {
+            report.orphanOrders++;
+            report.sample(report.orphanOrderSamples, id);
+            return;
+        }
+        long value = table.value(slot);
+        if ((value & 3) != kind) {
+            report.kindMismatches++;
+            report.sample(report.kindMismatchSamples, id);
+        }
+        table.value(slot, increment(value, ORDER_COUNT_SHIFT));
+    }
+
+    private void scan(OffHeapKeyTable table) {
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            long value = table.value(slot);
+            if (value == 0) {
+                continue;
+            }
+            long entities = (value >>> ENTITY_COUNT_SHIFT) & COUNTER_MAX;
+            long orders = (value >>> ORDER_COUNT_SHIFT) & COUNTER_MAX;
+            if (entities == 0) {
+                continue;
+            }
+            String key = formatKey(table.high(slot), table.low(slot));
+            if (entities > 1) {
+                report.duplicateIds++;
+                report.sample(report.duplicateIdSamples, key);
+            }
+            if (orders == 0) {
+                report.entitiesWithoutOrder++;
+                report.sample(report.entitiesWithoutOrderSamples, key);
+            } else if (orders > 1) {
+                report.entitiesWithSeveralOrders++;
+                report.sample(report.entitiesWithSeveralOrdersSamples, key);
+            }
+            if ((value & STATUS_OTHER) == STATUS_OTHER) {
+                report.unexpectedStatuses++;
+                report.sample(report.unexpectedStatusSamples, key);
+            }
+        }
+    }
+
+    private static long statusBits(String status) {
+        if ("APPROVED".equals(status)) {
+            return STATUS_APPROVED;
+        }
+        if ("DECLINED".equals(status)) {
+            return STATUS_DECLINED;
+        }
+        return STATUS_OTHER;
+    }
+
+    private static long increment(long value, int shift) {
+        long counter = (value >>> shift) & COUNTER_MAX;
+        if (counter == COUNTER_MAX) {
+            return value;
+        }
+        return value + (1L << shift);
+    }
+
+    /**
+     * Идентификаторы шлюза имеют вид UUID и раскладываются в два long без аллокаций;
+     * остальные строки хешируются двумя независимыми 64-битными хешами.
+     */
+    static long keyHigh(String id) {
+        return isUuid(id) ? parseHex(id, 0, 18) : hash(id, 0x9e3779b97f4a7c15L);
+    }
+
+    static long keyLow(String id) {
+        return isUuid(id) ? parseHex(id, 19, 36) : hash(id, 0xc2b2ae3d27d4eb4fL);
+    }
+
+    private static boolean isUuid(String id) {
+        if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-' || id.charAt(18) != '-' || id.charAt(23) != '-') {
+            return false;
+        }
+        for (int i = 0; i < 36; i++) {
+            if (i != 8 && i != 13 && i != 18 && i != 23 && Character.digit(id.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseHex(String id, int from, int to) {
+        long result = 0;
+        for (int i = from; i < to; i++) {
+            char c = id.charAt(i);
+            if (c != '-') {
+                result = (result << 4) | Character.digit(c, 16);
+            }
+        }
+        return result;
+    }
+
+    private static long hash(String id, long seed) {
+        long h = seed;
+        for (int i = 0; i < id.length(); i++) {
+            h = (h ^ id.charAt(i)) * 0x100000001b3L;
+            h = Long.rotateLeft(h, 29);
+        }
+        return h;
+    }
+
+    /**
+     * Ключ в виде UUID; для идентификаторов другого формата это их хеш.
+     */
+    private static String formatKey(long high, long low) {
+        return new UUID(high, low).toString();
+    }
+
+    public static class Report {
+        long payments;
+        long creditRequests;
+        long orders;
+        long entitiesWithoutId;
+        long ordersWithoutLink;
+        long orphanOrders;
+        long duplicateIds;
+        long entitiesWithoutOrder;
+        long entitiesWithSeveralOrders;
+        long kindMismatches;
+        long unexpectedStatuses;
+        long offHeapBytes;
+        long millis;
+        final List<String> orphanOrderSamples = new ArrayList<>();
+        final List<String> duplicateIdSamples = new ArrayList<>();
+        final List<String> entitiesWithoutOrderSamples = new ArrayList<>();
+        final List<String> entitiesWithSeveralOrdersSamples = new ArrayList<>();
+        final List<String> kindMismatchSamples = new ArrayList<>();
+        final List<String> unexpectedStatusSamples = new ArrayList<>();
+
+        private void sample(List<String> samples, String id) {
+            if (samples.size() < SAMPLES) {
+                samples.add(id);
+            }
+        }
+
+        public boolean isClean() {
+            return entitiesWithoutId + ordersWithoutLink + orphanOrders + duplicateIds + entitiesWithoutOrder
+                    + entitiesWithSeveralOrders + kindMismatches + unexpectedStatuses == 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("Reconciliation of %d payments, %d credit requests and %d orders in %d ms (%d MB off-heap)%n",
+                    payments, creditRequests, orders, millis, offHeapBytes >> 20)
+                    + line("payments/credit requests without id", entitiesWithoutId, List.of())
+                    + line("orders without payment or credit link", ordersWithoutLink, List.of())
+                    + line("orders linked to a missing payment/credit", orphanOrders, orphanOrderSamples)
+                    + line("duplicate transaction_id/bank_id", duplicateIds, duplicateIdSamples)
+                    + line("payments/credit requests without order", entitiesWithoutOrder, entitiesWithoutOrderSamples)
+                    + line("payments/credit requests with several orders", entitiesWithSeveralOrders, entitiesWithSeveralOrdersSamples)
+                    + line("payment/credit kind mismatches", kindMismatches, kindMismatchSamples)
+                    + line("statuses other than APPROVED/DECLINED", unexpectedStatuses, unexpectedStatusSamples);
+        }
+
+        private static String line(String title, long count, List<String> samples) {
+            return String.format("  %-48s %d%s%n", title, count, samples.isEmpty() ? "" : " e.g. " + samples);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package data.bd;
+
+public enum ResetStrategy {
+    DELETE,
+    TRUNCATE,
+    TEMPLATE
+}
@@ -0,0 +1,59 @@
+package data.bd;
+
+import org.apache.commons.dbutils.ResultSetHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Преобразование строк выборки в сущности без рефлексии: колонки читаются по индексу,
+ * поэтому запрос должен выбирать их в порядке, заданном константами {@code *_COLUMNS}.
+ */
+public class RowMappers {
+    private RowMappers() {
+    }
+
+    public static final String PAYMENT_COLUMNS = "transaction_id, status, amount";
+    public static final String ORDER_COLUMNS = "payment_id, credit_id";
+    public static final String CREDIT_REQUEST_COLUMNS = "status, bank_id";
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    public static SQLHelper.PaymentEntity payment(ResultSet rs) throws SQLException {
+        return new SQLHelper.PaymentEntity(rs.getString(1), rs.getString(2), rs.getInt(3));
+    }
+
+    public static SQLHelper.OrderEntity order(ResultSet rs) throws SQLException {
+        return new SQLHelper.OrderEntity(rs.getString(1), rs.getString(2));
+    }
+
+    public static SQLHelper.CreditRequestEntity creditRequest(ResultSet rs) throws SQLException {
+        return new SQLHelper.CreditRequestEntity(rs.getString(1), rs.getString(2));
+    }
+
+    /**
+     * Колонки: transaction_id, status, amount, количество связанных заказов.
+     */
+    public static SQLHelper.PaymentWithOrders paymentWithOrders(ResultSet rs) throws SQLException {
+        return new SQLHelper.PaymentWithOrders(rs.getString(1), rs.getString(2), rs.getInt(3), rs.getLong(4));
+    }
+
+    public static <T> ResultSetHandler<T> single(RowMapper<T> mapper) {
+        return rs -> rs.next() ? mapper.map(rs) : null;
+    }
+
+    public static <T> ResultSetHandler<List<T>> list(RowMapper<T> mapper) {
+        return rs -> {
+            List<T> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(mapper.map(rs));
+            }
+            return rows;
+        };
+    }
+}
@@ -2,78 +2,195 @@ package data.bd;
 
 import io.qameta.allure.Step;
 import lombok.*;
-import org.apache.commons.dbutils.QueryRunner;
-import org.apache.commons.dbutils.handlers.BeanHandler;
+import io.restassured.response.Response;
+import org.apache.commons.dbutils.ResultSetHandler;
 import org.junit.jupiter.api.Assertions;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.function.Supplier;
 
 public class SQLHelper {
     private SQLHelper() {
     }
 
-    private static final QueryRunner runner = new QueryRunner();
-
-    private static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(
-                "jdbc:postgresql://localhost:5432/app", "user", "pass");
+    private static final long TRACE_LOCK_KEY = 0x5452414345L;
+
+    /**
+     * Выполняет запрос и записывает в {@link QueryMetrics} время получения соединения,
+     * выполнения запроса и преобразования результата.
+     *
+     * @param kind - вид запроса, под которым он учитывается в статистике.
+     */
+    private static <T> T query(String kind, String sql, ResultSetHandler<T> handler, Object... params) throws SQLException {
+        long start = System.nanoTime();
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            long acquired = System.nanoTime();
+            try (PreparedStatement statement = conn.prepareStatement(sql)) {
+                for (int i = 0; i < params.length; i++) {
+                    statement.setObject(i + 1, params[i]);
+                }
+                try (ResultSet rs = statement.executeQuery()) {
+                    long executed = System.nanoTime();
+                    T result = handler.handle(rs);
+                    QueryMetrics.record(kind, acquired - start, executed - acquired, System.nanoTime() - executed);
+                    return result;
+                }
+            }
+        }
     }
 
-    @SneakyThrows
     public static void cleanDatabase() {
-        try (Connection conn = getConnection()) {
-            runner.update(conn, "DELETE FROM payment_entity;");
-            runner.update(conn, "DELETE FROM order_entity;");
-            runner.update(conn, "DELETE FROM credit_request_entity;");
-        }
+        DatabaseReset.reset(DatabaseReset.getStrategy());
     }
 
     @SneakyThrows
     private static PaymentEntity getPaymentEntity() {
-        var dataSQL = "SELECT * FROM payment_entity ORDER BY created DESC LIMIT 1;";
-        try (var conn = getConnection()) {
-            return runner.query(conn, dataSQL, new BeanHandler<>(PaymentEntity.class));
-        }
+        var dataSQL = "SELECT " + RowMappers.PAYMENT_COLUMNS + " FROM payment_entity ORDER BY created DESC LIMIT 1;";
+        return query("getPaymentEntity", dataSQL, RowMappers.single(RowMappers::payment));
     }
 
     @SneakyThrows
     private static OrderEntity getOrderEntity() {
-        var dataSQL = "SELECT * FROM order_entity ORDER BY created DESC LIMIT 1;";
-        try (var conn = getConnection()) {
-            return runner.query(conn, dataSQL, new BeanHandler<>(OrderEntity.class));
-        }
+        var dataSQL = "SELECT " + RowMappers.ORDER_COLUMNS + " FROM order_entity ORDER BY created DESC LIMIT 1;";
+        return query("getOrderEntity", dataSQL, RowMappers.single(RowMappers::order));
     }
 
     @SneakyThrows
     private static CreditRequestEntity getCreditRequestEntity() {
-        var dataSQL = "SELECT * FROM credit_request_entity ORDER BY created DESC LIMIT 1;";
-        try (var conn = getConnection()) {
-            return runner.query(conn, dataSQL, new BeanHandler<>(CreditRequestEntity.class));
+        var dataSQL = "SELECT " + RowMappers.CREDIT_REQUEST_COLUMNS + " FROM credit_request_entity ORDER BY created DESC LIMIT 1;";
+        return query("getCreditRequestEntity", dataSQL, RowMappers.single(RowMappers::creditRequest));
+    }
+
+    /**
+     * Выполняет запрос к API и запоминает окно времени БД, в котором он был обработан.
+     * Строки, созданные приложением в ответ на этот запрос, ищутся только внутри окна.
+     * <p>
+     * Приложение не сохраняет в строках ничего уникального для запроса (держатель карты не хранится,
+     * сумма всегда одна), поэтому уникальным делается само окно: на время запроса берётся
+     * advisory-блокировка базы, и окна трассируемых запросов разных форков не пересекаются.
+     * При {@code -Denv.isolation=database} у каждого форка своя база и блокировка не конкурирует.
+     *
+     * @param request - отправка запроса, например {@code () -> ApiHelper.sendRequest(...)}.
+     */
+    @SneakyThrows
+    public static RequestTrace trace(Supplier<Response> request) {
+        try (Connection conn = DataSourceProvider.getConnection()) {
+            execute(conn, "SELECT pg_advisory_lock(" + TRACE_LOCK_KEY + ");");
+            try {
+                Timestamp from = getDatabaseTime(conn);
+                Response response = request.get();
+                Timestamp to = getDatabaseTime(conn);
+                return new RequestTrace(response, from, to);
+            } finally {
+                execute(conn, "SELECT pg_advisory_unlock(" + TRACE_LOCK_KEY + ");");
+            }
+        }
+    }
+
+    private static Timestamp getDatabaseTime(Connection conn) throws SQLException {
+        try (Statement statement = conn.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT clock_timestamp()::timestamp;")) {
+            rs.next();
+            return rs.getTimestamp(1);
+        }
+    }
+
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement statement = conn.createStatement()) {
+            statement.execute(sql);
         }
     }
 
     @SneakyThrows
-    @Step("Check that last payment status is {expectedStatus}")
-    public static void checkPaymentStatus(String expectedStatus) {
-        PaymentEntity payment = getPaymentEntity();
-        Assertions.assertEquals(expectedStatus, payment.getStatus(), "Payment status mismatch");
+    private static List<PaymentEntity> getPaymentEntities(RequestTrace trace) {
+        var dataSQL = "SELECT " + RowMappers.PAYMENT_COLUMNS + " FROM payment_entity WHERE created BETWEEN ? AND ?;";
+        return query("getPaymentEntities", dataSQL, RowMappers.list(RowMappers::payment),
+                trace.getFrom(), trace.getTo());
     }
 
     @SneakyThrows
-    @Step("Check that last payment amount is {expectedAmount}")
-    public static void checkPaymentAmount(int expectedAmount) {
-        PaymentEntity payment = getPaymentEntity();
-        Assertions.assertEquals(expectedAmount, payment.getAmount(), "Payment amount mismatch");
+    private static List<OrderEntity> getOrderEntities(RequestTrace trace) {
+        var dataSQL = "SELECT " + RowMappers.ORDER_COLUMNS + " FROM order_entity WHERE created BETWEEN ? AND ?;";
+        return query("getOrderEntities", dataSQL, RowMappers.list(RowMappers::order),
+                trace.getFrom(), trace.getTo());
     }
 
+    /**
+     * Значения {@code created} платежей в окне времени, по возрастанию.
+     */
     @SneakyThrows
-    @Step("Check that order is linked to payment")
-    public static void checkOrderLinkedToPayment() {
-        PaymentEntity payment = getPaymentEntity();
-        OrderEntity order = getOrderEntity();
-        Assertions.assertEquals(payment.getTransactionId(), order.getPaymentId(), "Order is not linked to the correct payment");
+    public static List<Timestamp> getPaymentCreatedBetween(Timestamp from, Timestamp to) {
+        var dataSQL = "SELECT created FROM payment_entity WHERE created BETWEEN ? AND ? ORDER BY created;";
+        return query("getPaymentCreatedBetween", dataSQL, RowMappers.list(rs -> rs.getTimestamp(1)), from, to);
+    }
+
+    /**
+     * Значения {@code created} кредитных заявок в окне времени, по возрастанию.
+     */
+    @SneakyThrows
+    public static List<Timestamp> getCreditRequestCreatedBetween(Timestamp from, Timestamp to) {
+        var dataSQL = "SELECT created FROM credit_request_entity WHERE created BETWEEN ? AND ? ORDER BY created;";
+        return query("getCreditRequestCreatedBetween", dataSQL, RowMappers.list(rs -> rs.getTimestamp(1)), from, to);
+    }
+
+    @Step("Verify that the request created no payments")
+    public static void assertNoPayments(RequestTrace trace) {
+        List<PaymentEntity> payments = getPaymentEntities(trace);
+        Assertions.assertTrue(payments.isEmpty(), "Expected no payments for the request, but found: " + payments);
+    }
+
+    @Step("Verify that the request created no orders")
+    public static void assertNoOrders(RequestTrace trace) {
+        List<OrderEntity> orders = getOrderEntities(trace);
+        Assertions.assertTrue(orders.isEmpty(), "Expected no orders for the request, but found: " + orders);
+    }
+
+    private static final String PAYMENT_WITH_ORDERS_SQL = "SELECT p.transaction_id, p.status, p.amount, "
+            + "COUNT(o.id) AS order_count FROM payment_entity p "
+            + "LEFT JOIN order_entity o ON o.payment_id = p.transaction_id ";
+
+    @SneakyThrows
+    static List<PaymentWithOrders> getPaymentsWithOrders(RequestTrace trace) {
+        var dataSQL = PAYMENT_WITH_ORDERS_SQL + "WHERE p.created BETWEEN ? AND ? "
+                + "GROUP BY p.id, p.transaction_id, p.status, p.amount;";
+        return query("getPaymentsWithOrders", dataSQL, RowMappers.list(RowMappers::paymentWithOrders),
+                trace.getFrom(), trace.getTo());
+    }
+
+    @SneakyThrows
+    static List<PaymentWithOrders> getPaymentWithOrders(String transactionId) {
+        var dataSQL = PAYMENT_WITH_ORDERS_SQL + "WHERE p.transaction_id = ? "
+                + "GROUP BY p.id, p.transaction_id, p.status, p.amount;";
+        return query("getPaymentWithOrders", dataSQL, RowMappers.list(RowMappers::paymentWithOrders), transactionId);
+    }
+
+    /**
+     * Ожидания к платежу, созданному запросом; проверяются одним JOIN-запросом в {@link PaymentExpectation#verify()}.
+     */
+    public static PaymentExpectation expectPayment(RequestTrace trace) {
+        return new PaymentExpectation(trace);
+    }
+
+    /**
+     * Ожидания к следующему платежу, который создаст приложение (для UI-тестов, где запрос не отслеживается).
+     * Вызывается до отправки формы: вставка платежа и заказа ожидается через {@link ChangeStream},
+     * поэтому проверка не читает базу раньше, чем приложение запишет строки.
+     */
+    public static PaymentExpectation expectNextPayment() {
+        return new PaymentExpectation(ChangeStream.getInstance());
+    }
+
+    @SneakyThrows
+    @Step("Verify that every payment and credit request has exactly one linked order")
+    public static void assertDatabaseReconciled() {
+        Reconciliation.Report report = Reconciliation.run();
+        Assertions.assertTrue(report.isClean(), report.toString());
     }
 
     @Step("Verify that no records exist in 'payment_entity' table")
@@ -94,6 +211,13 @@ public class SQLHelper {
         Assertions.assertNull(creditRequest, "Expected no records in 'credit_request_entity', but a record was found: " + creditRequest);
     }
 
+    @Value
+    public static class RequestTrace {
+        Response response;
+        Timestamp from;
+        Timestamp to;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -103,6 +227,16 @@ public class SQLHelper {
         int amount;
     }
 
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PaymentWithOrders {
+        String transactionId;
+        String status;
+        int amount;
+        long orderCount;
+    }
+
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -0,0 +1,197 @@
+package data.env;
+
+import data.bd.DatabaseReset;
+import lombok.SneakyThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Окружение тестового воркера (JVM-форка Gradle).
+ * <p>
+ * При {@code -Denv.isolation=database} каждый форк получает свою базу {@code <имя базы>_w<номер воркера>}
+ * и свой экземпляр приложения на свободном порту, поэтому форки можно запускать параллельно
+ * ({@code -Dtest.forks=N}). По умолчанию ({@code none}) используются общая база и приложение на порту 8080.
+ */
+public class WorkerEnvironment {
+    private WorkerEnvironment() {
+    }
+
+    private static final String BASE_JDBC_URL = System.getProperty("db.url", "jdbc:postgresql://localhost:5432/app");
+    private static final String USER = System.getProperty("db.user", "user");
+    private static final String PASSWORD = System.getProperty("db.password", "pass");
+
+    private static volatile boolean started;
+    private static String jdbcUrl = BASE_JDBC_URL;
+    private static int appPort = Integer.getInteger("env.app.port", 8080);
+    private static Process app;
+
+    public static boolean isIsolated() {
+        return "database".equals(System.getProperty("env.isolation", "none"));
+    }
+
+    public static String getWorkerId() {
+        return System.getProperty("org.gradle.test.worker", "0");
+    }
+
+    public static String getJdbcUrl() {
+        start();
+        return jdbcUrl;
+    }
+
+    public static int getAppPort() {
+        start();
+        return appPort;
+    }
+
+    public static String getBaseUrl() {
+        return "http://localhost:" + getAppPort() + "/";
+    }
+
+    private static void start() {
+        if (started) {
+            return;
+        }
+        synchronized (WorkerEnvironment.class) {
+            if (started) {
+                return;
+            }
+            if (isIsolated()) {
+                String database = getBaseDatabaseName() + "_w" + getWorkerId();
+                createDatabase(database);
+                jdbcUrl = BASE_JDBC_URL.replaceFirst("/" + getBaseDatabaseName() + "(\\?|$)", "/" + database + "$1");
+                appPort = findFreePort();
+                app = startApp(jdbcUrl, appPort);
+            }
+            started = true;
+        }
+    }
+
+    @SneakyThrows
+    private static void createDatabase(String database) {
+        String template = DatabaseReset.getTemplateName(getBaseDatabaseName());
+        try (Connection conn = getMaintenanceConnection();
+             Statement statement = conn.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DatabaseReset.quoteIdentifier(database) + " WITH (FORCE);");
+            boolean hasTemplate;
+            try (PreparedStatement query = conn.prepareStatement("SELECT 1 FROM pg_database WHERE datname = ?;")) {
+                query.setString(1, template);
+                try (ResultSet rs = query.executeQuery()) {
+                    hasTemplate = rs.next();
+                }
+            }
+            statement.execute("CREATE DATABASE " + DatabaseReset.quoteIdentifier(database)
+                    + (hasTemplate ? " TEMPLATE " + DatabaseReset.quoteIdentifier(template) : "") + ";");
+        }
+    }
+
+    /**
+     * Удаляет базу воркера и её шаблон {@code <база воркера>_template}, который создаёт сброс стратегией TEMPLATE.
+     * Шаблон, заданный явно через {@code -Ddb.reset.template}, общий для воркеров и не удаляется.
+     */
+    @SneakyThrows
+    private static void dropDatabase() {
+        String database = DatabaseReset.getDatabaseName(jdbcUrl);
+        String template = database + "_template";
+        try (Connection conn = getMaintenanceConnection();
+             Statement statement = conn.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + DatabaseReset.quoteIdentifier(database) + " WITH (FORCE);");
+            if (System.getProperty("db.reset.template") == null) {
+                statement.execute("DROP DATABASE IF EXISTS " + DatabaseReset.quoteIdentifier(template) + " WITH (FORCE);");
+            }
+        }
+    }
+
+    @SneakyThrows
+    private static Process startApp(String jdbcUrl, int port) {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("env.app.java", "java"));
+        command.add("-jar");
+        command.add(System.getProperty("env.app.jar", "artifacts/aqa-shop.jar"));
+        command.add("--server.port=" + port);
+        command.add("--spring.datasource.url=" + jdbcUrl);
+        command.add("--spring.datasource.username=" + USER);
+        command.add("--spring.datasource.password=" + PASSWORD);
+        String extraArgs = System.getProperty("env.app.args", "");
+        if (!extraArgs.isBlank()) {
+            command.addAll(List.of(extraArgs.trim().split("\\s+")));
+        }
+        File log = new File(System.getProperty("env.app.logDir", "build/sut"), "worker-" + getWorkerId() + ".log");
+        log.getParentFile().mkdirs();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        waitForPort(process, port, Long.getLong("env.app.startTimeoutSec", 90L));
+        return process;
+    }
+
+    @SneakyThrows
+    private static void waitForPort(Process process, int port, long timeoutSec) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSec);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application under test exited with code " + process.exitValue());
+            }
+            try (Socket socket = new Socket()) {
+                socket.connect(new InetSocketAddress("localhost", port), 200);
+                return;
+            } catch (IOException e) {
+                TimeUnit.MILLISECONDS.sleep(250);
+            }
+        }
+        process.destroyForcibly();
+        throw new IllegalStateException("Application under test did not open port " + port + " in " + timeoutSec + " s");
+    }
+
+    @SneakyThrows
+    private static int findFreePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Connection getMaintenanceConnection() throws Exception {
+        String database = getBaseDatabaseName();
+        String url = BASE_JDBC_URL.replaceFirst("/" + database + "(\\?|$)", "/postgres$1");
+        return DriverManager.getConnection(url, USER, PASSWORD);
+    }
+
+    private static String getBaseDatabaseName() {
+        return DatabaseReset.getDatabaseName(BASE_JDBC_URL);
+    }
+
+    /**
+     * Останавливает приложение воркера и удаляет его базу.
+     */
+    public static synchronized void shutdown() {
+        if (!started || !isIsolated()) {
+            return;
+        }
+        if (app != null) {
+            app.destroy();
+            try {
+                if (!app.waitFor(15, TimeUnit.SECONDS)) {
+                    app.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!Boolean.getBoolean("env.keepDatabase")) {
+            dropDatabase();
+        }
+        started = false;
+    }
+}
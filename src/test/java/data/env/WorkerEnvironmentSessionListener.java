@@ -0,0 +1,12 @@
+package data.env;
+
+import org.junit.platform.launcher.LauncherSession;
+import org.junit.platform.launcher.LauncherSessionListener;
+
+public class WorkerEnvironmentSessionListener implements LauncherSessionListener {
+
+    @Override
+    public void launcherSessionClosed(LauncherSession session) {
+        WorkerEnvironment.shutdown();
+    }
+}
@@ -0,0 +1,86 @@
+package data.gate;
+
+import data.env.WorkerEnvironment;
+import gate.GateEndpoint;
+import gate.GateJournal;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.Assertions;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static io.restassured.RestAssured.given;
+
+/**
+ * Обращения тестов к журналу локального симулятора банка ({@code gate.GateSimulator}), адрес — {@code gate.url}.
+ * Если журнал недоступен (например, приложение настроено на удалённый симулятор), {@link #mark()} возвращает -1,
+ * и проверки по журналу пропускаются.
+ */
+public class GateHelper {
+    private GateHelper() {
+    }
+
+    private static final String gateUrl = System.getProperty("gate.url", "http://localhost:9999");
+    private static volatile Boolean available;
+
+    public static boolean isJournalAvailable() {
+        if (available == null) {
+            try {
+                available = given().baseUri(gateUrl).get("/admin/journal/entries?since=" + Long.MAX_VALUE).getStatusCode() == 200;
+            } catch (Exception e) {
+                available = false;
+            }
+            if (!available) {
+                System.out.println("Gate journal is not available at " + gateUrl + ", gate checks are skipped");
+            }
+        }
+        return available;
+    }
+
+    /**
+     * Номер следующей записи журнала: запросы к банку, сделанные после вызова, получат номер не меньше него.
+     */
+    public static long mark() {
+        if (!isJournalAvailable()) {
+            return -1;
+        }
+        String firstLine = entries(Long.MAX_VALUE).split("\n", 2)[0];
+        return Long.parseLong(firstLine.substring("next=".length()));
+    }
+
+    public static List<GateJournal.Entry> getEntriesSince(long mark) {
+        return entries(mark).lines()
+                .skip(1)
+                .filter(line -> !line.isBlank())
+                .map(GateJournal.Entry::parse)
+                .collect(Collectors.toList());
+    }
+
+    public static String getSummary(long windowSeconds) {
+        return given().baseUri(gateUrl).get("/admin/journal?window=" + windowSeconds).asString();
+    }
+
+    /**
+     * Проверяет, что после {@code mark} магазин обратился к банку ровно один раз с этой картой.
+     * <p>
+     * Запрос магазина к банку не несёт ничего уникального для теста (карта и сумма у всех тестов одни),
+     * поэтому обращения сопоставляются по номеру записи и маске карты. Это верно, только пока банк вызывает
+     * один воркер: при {@code -Denv.isolation=database} симулятор общий для всех воркеров, и проверка пропускается.
+     */
+    public static void assertCalledOnce(long mark, GateEndpoint endpoint, String cardNumber) {
+        if (mark < 0 || WorkerEnvironment.isIsolated()) {
+            return;
+        }
+        String cardMask = GateJournal.maskCard(cardNumber);
+        List<GateJournal.Entry> calls = getEntriesSince(mark).stream()
+                .filter(entry -> entry.endpoint == endpoint && entry.cardMask.equals(cardMask))
+                .collect(Collectors.toList());
+        Assertions.assertEquals(1, calls.size(), "Expected exactly one " + endpoint + " gate call for " + cardMask);
+    }
+
+    private static String entries(long since) {
+        Response response = given().baseUri(gateUrl).get("/admin/journal/entries?since=" + since);
+        Assertions.assertEquals(200, response.getStatusCode(), "Gate journal request failed: " + response.asString());
+        return response.asString();
+    }
+}
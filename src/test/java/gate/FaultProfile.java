@@ -0,0 +1,86 @@
+package gate;
+
+import lombok.Value;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Доли запросов, на которые симулятор отвечает сбоем. Задаётся строкой {@code timeout=0.01,reset=0.01,error=0.05}:
+ * <ul>
+ *     <li>{@code timeout} — ответ не отправляется, соединение остаётся открытым до закрытия клиентом;</li>
+ *     <li>{@code reset} — соединение сбрасывается (RST);</li>
+ *     <li>{@code error} — ответ {@code 500 Internal Server Error}.</li>
+ * </ul>
+ */
+@Value
+public class FaultProfile {
+
+    public enum Fault {
+        NONE,
+        TIMEOUT,
+        RESET,
+        ERROR
+    }
+
+    public static final FaultProfile NONE = new FaultProfile(0, 0, 0);
+
+    double timeoutRate;
+    double resetRate;
+    double errorRate;
+
+    public Fault sample(Random random) {
+        if (timeoutRate == 0 && resetRate == 0 && errorRate == 0) {
+            return Fault.NONE;
+        }
+        double point = random.nextDouble();
+        if (point < timeoutRate) {
+            return Fault.TIMEOUT;
+        }
+        if (point < timeoutRate + resetRate) {
+            return Fault.RESET;
+        }
+        if (point < timeoutRate + resetRate + errorRate) {
+            return Fault.ERROR;
+        }
+        return Fault.NONE;
+    }
+
+    public static FaultProfile parse(String spec) {
+        double timeout = 0;
+        double reset = 0;
+        double error = 0;
+        for (String part : spec.split(",")) {
+            if (part.isBlank() || part.trim().equalsIgnoreCase("none")) {
+                continue;
+            }
+            String[] nameAndRate = part.trim().split("=");
+            if (nameAndRate.length != 2) {
+                throw new IllegalArgumentException("Expected fault=rate, got: " + part);
+            }
+            double rate = Double.parseDouble(nameAndRate[1].trim());
+            switch (nameAndRate[0].trim().toLowerCase(Locale.ROOT)) {
+                case "timeout":
+                    timeout = rate;
+                    break;
+                case "reset":
+                    reset = rate;
+                    break;
+                case "error":
+                    error = rate;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown fault: " + nameAndRate[0]);
+            }
+        }
+        if (timeout < 0 || reset < 0 || error < 0 || timeout + reset + error > 1) {
+            throw new IllegalArgumentException("Fault rates must be non-negative and sum to at most 1: " + spec);
+        }
+        return new FaultProfile(timeout, reset, error);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "timeout=%s,reset=%s,error=%s", timeoutRate, resetRate, errorRate);
+    }
+}
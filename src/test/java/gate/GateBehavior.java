@@ -0,0 +1,92 @@
+package gate;
+
+import lombok.Value;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Задержки и сбои симулятора по каждому {@link GateEndpoint}. Неизменяемый снимок: новая конфигурация
+ * заменяет старую целиком, поэтому её можно менять во время прогона.
+ * <p>
+ * Ключи конфигурации: {@code <payment|credit|*>.latency} и {@code <payment|credit|*>.faults},
+ * значения — в формате {@link LatencyProfile#parse} и {@link FaultProfile#parse}.
+ */
+public class GateBehavior {
+
+    @Value
+    public static class Endpoint {
+        LatencyProfile latency;
+        FaultProfile faults;
+    }
+
+    public static final GateBehavior DEFAULT = new GateBehavior(new EnumMap<>(GateEndpoint.class));
+
+    private final Map<GateEndpoint, Endpoint> endpoints;
+
+    private GateBehavior(Map<GateEndpoint, Endpoint> endpoints) {
+        this.endpoints = endpoints;
+    }
+
+    public Endpoint get(GateEndpoint endpoint) {
+        return endpoints.getOrDefault(endpoint, new Endpoint(LatencyProfile.NONE, FaultProfile.NONE));
+    }
+
+    /**
+     * Новая конфигурация: заданные ключи заменяют значения текущей, остальные сохраняются.
+     */
+    public GateBehavior with(Properties changes) {
+        Map<GateEndpoint, Endpoint> updated = new EnumMap<>(GateEndpoint.class);
+        for (GateEndpoint endpoint : GateEndpoint.values()) {
+            Endpoint current = get(endpoint);
+            String prefix = endpoint.name().toLowerCase(Locale.ROOT) + ".";
+            LatencyProfile latency = current.latency;
+            FaultProfile faults = current.faults;
+            String value;
+            if ((value = property(changes, prefix, "latency")) != null) {
+                latency = LatencyProfile.parse(value);
+            }
+            if ((value = property(changes, prefix, "faults")) != null) {
+                faults = FaultProfile.parse(value);
+            }
+            updated.put(endpoint, new Endpoint(latency, faults));
+        }
+        for (String key : changes.stringPropertyNames()) {
+            String[] parts = key.split("\\.");
+            if (parts.length != 2 || !(parts[1].equals("latency") || parts[1].equals("faults"))
+                    || !(parts[0].equals("*") || GateEndpoint.of("/" + parts[0]) != null)) {
+                throw new IllegalArgumentException("Unknown gate behavior key: " + key);
+            }
+        }
+        return new GateBehavior(updated);
+    }
+
+    private static String property(Properties changes, String prefix, String name) {
+        String value = changes.getProperty(prefix + name);
+        return value != null ? value : changes.getProperty("*." + name);
+    }
+
+    /**
+     * Конфигурация из системных свойств {@code gate.payment.latency}, {@code gate.credit.faults} и т.п.
+     */
+    public static GateBehavior fromSystemProperties() {
+        Properties changes = new Properties();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(key -> key.startsWith("gate.") && (key.endsWith(".latency") || key.endsWith(".faults")))
+                .forEach(key -> changes.setProperty(key.substring("gate.".length()), System.getProperty(key)));
+        return DEFAULT.with(changes);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (GateEndpoint endpoint : GateEndpoint.values()) {
+            String prefix = endpoint.name().toLowerCase(Locale.ROOT);
+            out.append(prefix).append(".latency=").append(get(endpoint).latency).append('\n');
+            out.append(prefix).append(".faults=").append(get(endpoint).faults).append('\n');
+        }
+        return out.toString();
+    }
+}
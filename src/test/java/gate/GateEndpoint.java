@@ -0,0 +1,25 @@
+package gate;
+
+public enum GateEndpoint {
+    PAYMENT("/payment"),
+    CREDIT("/credit");
+
+    private final String path;
+
+    GateEndpoint(String path) {
+        this.path = path;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    static GateEndpoint of(String path) {
+        for (GateEndpoint endpoint : values()) {
+            if (endpoint.path.equals(path)) {
+                return endpoint;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,235 @@
+package gate;
+
+import org.HdrHistogram.Histogram;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Журнал запросов к симулятору: кольцевой буфер фиксированного размера без блокировок. Пишет только
+ * поток-селектор, читать можно из любого потока. Каждый слот защищён номером записи (seqlock): перед записью
+ * номер сбрасывается в -1, после — выставляется номер записи; читатель принимает слот, только если номер
+ * до и после чтения полей совпадает с ожидаемым. Перезаписанные слоты читателю просто не достаются.
+ * <p>
+ * Время хранится в микросекундах от эпохи, чтобы его можно было сопоставить с {@code created} в базе
+ * и с временем отправки запроса тестом.
+ */
+public class GateJournal {
+
+    /**
+     * Заголовок, значение которого записывается в журнал как correlation id запроса.
+     */
+    public static final String CORRELATION_HEADER = "X-Correlation-Id";
+
+    public enum Outcome {
+        APPROVED,
+        DECLINED,
+        BAD_REQUEST,
+        INTERNAL_SERVER_ERROR,
+        TIMEOUT,
+        RESET;
+
+        static Outcome of(GateResponse response) {
+            return valueOf(response.name());
+        }
+    }
+
+    public static class Entry {
+        public final long sequence;
+        public final long receivedMicros;
+        public final long respondedMicros;
+        public final GateEndpoint endpoint;
+        public final Outcome outcome;
+        public final String cardMask;
+        public final long amount;
+        public final String correlationId;
+
+        Entry(long sequence, long receivedMicros, long respondedMicros, GateEndpoint endpoint, Outcome outcome,
+              String cardMask, long amount, String correlationId) {
+            this.sequence = sequence;
+            this.receivedMicros = receivedMicros;
+            this.respondedMicros = respondedMicros;
+            this.endpoint = endpoint;
+            this.outcome = outcome;
+            this.cardMask = cardMask;
+            this.amount = amount;
+            this.correlationId = correlationId;
+        }
+
+        /**
+         * Задержка ответа в микросекундах или -1, если ответа не было.
+         */
+        public long getServedMicros() {
+            return respondedMicros == 0 ? -1 : respondedMicros - receivedMicros;
+        }
+
+        String toLine() {
+            return sequence + "," + receivedMicros + "," + respondedMicros + "," + endpoint + "," + outcome + ","
+                    + cardMask + "," + amount + "," + (correlationId == null ? "-" : correlationId);
+        }
+
+        public static Entry parse(String line) {
+            String[] fields = line.split(",");
+            return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                    GateEndpoint.valueOf(fields[3]), Outcome.valueOf(fields[4]), fields[5], Long.parseLong(fields[6]),
+                    fields.length > 7 && !fields[7].equals("-") ? fields[7] : null);
+        }
+    }
+
+    private static final long NO_CARD = -1;
+
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final long[] received;
+    private final long[] responded;
+    private final long[] cards;
+    private final long[] amounts;
+    private final byte[] endpoints;
+    private final byte[] outcomes;
+    private final String[] correlationIds;
+    private final AtomicLong next = new AtomicLong();
+    private final long startMicros = TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis());
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * @param capacity - число хранимых записей, округляется вверх до степени двойки.
+     */
+    public GateJournal(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, -1);
+        }
+        received = new long[size];
+        responded = new long[size];
+        cards = new long[size];
+        amounts = new long[size];
+        endpoints = new byte[size];
+        outcomes = new byte[size];
+        correlationIds = new String[size];
+    }
+
+    long toEpochMicros(long nanoTime) {
+        return startMicros + TimeUnit.NANOSECONDS.toMicros(nanoTime - startNanos);
+    }
+
+    /**
+     * Добавляет запись; вызывается только потоком-селектором.
+     *
+     * @param respondedNanos - время ответа по {@link System#nanoTime()} или 0, если ответа не будет.
+     */
+    void record(long receivedNanos, long respondedNanos, GateEndpoint endpoint, Outcome outcome, String cardNumber,
+                long amount, String correlationId) {
+        long sequence = next.get();
+        int slot = (int) (sequence & mask);
+        sequences.set(slot, -1);
+        VarHandle.storeStoreFence();
+        received[slot] = toEpochMicros(receivedNanos);
+        responded[slot] = respondedNanos == 0 ? 0 : toEpochMicros(respondedNanos);
+        cards[slot] = encodeCard(cardNumber);
+        amounts[slot] = amount;
+        endpoints[slot] = (byte) endpoint.ordinal();
+        outcomes[slot] = (byte) outcome.ordinal();
+        correlationIds[slot] = correlationId;
+        sequences.setRelease(slot, sequence);
+        next.lazySet(sequence + 1);
+    }
+
+    /**
+     * Номер следующей записи: записи, добавленные после вызова, будут иметь номер не меньше возвращённого.
+     */
+    public long getNextSequence() {
+        return next.get();
+    }
+
+    /**
+     * Записи с номером не меньше {@code since}, которые ещё не вытеснены из буфера.
+     */
+    public List<Entry> entriesSince(long since) {
+        long end = next.get();
+        long start = Math.max(since, end - mask - 1);
+        List<Entry> result = new ArrayList<>((int) Math.max(end - start, 0));
+        GateEndpoint[] endpointValues = GateEndpoint.values();
+        Outcome[] outcomeValues = Outcome.values();
+        for (long sequence = start; sequence < end; sequence++) {
+            int slot = (int) (sequence & mask);
+            if (sequences.getAcquire(slot) != sequence) {
+                continue;
+            }
+            Entry entry = new Entry(sequence, received[slot], responded[slot], endpointValues[endpoints[slot]],
+                    outcomeValues[outcomes[slot]], decodeCard(cards[slot]), amounts[slot], correlationIds[slot]);
+            VarHandle.loadLoadFence();
+            if (sequences.get(slot) == sequence) {
+                result.add(entry);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сводка по записям за последние {@code windowSeconds} секунд: число, интенсивность и задержка ответа
+     * по каждой паре сервис/итог.
+     */
+    public String summary(long windowSeconds) {
+        long from = toEpochMicros(System.nanoTime()) - TimeUnit.SECONDS.toMicros(windowSeconds);
+        Map<String, Histogram> served = new TreeMap<>();
+        Map<GateEndpoint, Long> totals = new EnumMap<>(GateEndpoint.class);
+        long count = 0;
+        for (Entry entry : entriesSince(0)) {
+            if (entry.receivedMicros < from) {
+                continue;
+            }
+            count++;
+            totals.merge(entry.endpoint, 1L, Long::sum);
+            Histogram histogram = served.computeIfAbsent(entry.endpoint + " " + entry.outcome, k -> new Histogram(3));
+            histogram.recordValue(Math.max(entry.getServedMicros(), 0));
+        }
+        double seconds = Math.max(1, Math.min(windowSeconds,
+                TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos)));
+        StringBuilder out = new StringBuilder(String.format(Locale.ROOT,
+                "Gate journal: %d requests recorded, %d in the last %d s (%.1f req/s)%n",
+                next.get(), count, windowSeconds, count / seconds));
+        totals.forEach((endpoint, total) -> out.append(String.format(Locale.ROOT, "  %-8s %8d %10.1f req/s%n",
+                endpoint, total, total / seconds)));
+        out.append(String.format("  %-32s %8s %10s %10s %10s %10s%n", "endpoint outcome", "count", "req/s",
+                "p50 us", "p99 us", "max us"));
+        served.forEach((key, histogram) -> out.append(String.format(Locale.ROOT, "  %-32s %8d %10.1f %10d %10d %10d%n",
+                key, histogram.getTotalCount(), histogram.getTotalCount() / seconds, histogram.getValueAtPercentile(50),
+                histogram.getValueAtPercentile(99), histogram.getMaxValue())));
+        return out.toString();
+    }
+
+    /**
+     * Маска карты: первые и последние четыре цифры, например {@code 1111********4444}.
+     */
+    public static String maskCard(String cardNumber) {
+        return decodeCard(encodeCard(cardNumber));
+    }
+
+    private static long encodeCard(String cardNumber) {
+        if (cardNumber == null) {
+            return NO_CARD;
+        }
+        String digits = cardNumber.replaceAll("\\D", "");
+        if (digits.length() < 8) {
+            return NO_CARD;
+        }
+        return Long.parseLong(digits.substring(0, 4)) * 10_000 + Long.parseLong(digits.substring(digits.length() - 4));
+    }
+
+    private static String decodeCard(long card) {
+        if (card == NO_CARD) {
+            return "-";
+        }
+        return String.format("%04d********%04d", card / 10_000, card % 10_000);
+    }
+}
@@ -0,0 +1,114 @@
+package gate;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Epic("Test Infrastructure")
+@Feature("Bank Gate Journal")
+@Owner("Veronika Obukhova")
+@Tag("GATE")
+public class GateJournalTest {
+    private static final String APPROVED_CARD = "1111 2222 3333 4444";
+    private static final String DECLINED_CARD = "5555 6666 7777 8888";
+
+    @Test
+    @Story("Ring buffer")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should keep only the latest entries after the buffer wraps around")
+    void shouldOverwriteOldestEntriesOnWraparound() {
+        GateJournal journal = new GateJournal(4);
+        for (int i = 0; i < 6; i++) {
+            record(journal, GateEndpoint.PAYMENT, GateJournal.Outcome.APPROVED, i);
+        }
+
+        List<GateJournal.Entry> entries = journal.entriesSince(0);
+        assertEquals(6, journal.getNextSequence());
+        assertEquals(List.of(2L, 3L, 4L, 5L), sequences(entries));
+        assertEquals(List.of(2L, 3L, 4L, 5L), entries.stream().map(entry -> entry.amount).collect(Collectors.toList()),
+                "Overwritten slots should hold the new entries' fields");
+    }
+
+    @Test
+    @Story("Ring buffer")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should return only retained entries for a mark the writer has lapped")
+    void shouldSkipOverwrittenEntriesSinceLappedMark() {
+        GateJournal journal = new GateJournal(4);
+        record(journal, GateEndpoint.PAYMENT, GateJournal.Outcome.APPROVED, 0);
+        long mark = journal.getNextSequence();
+        for (int i = 1; i <= 9; i++) {
+            record(journal, GateEndpoint.CREDIT, GateJournal.Outcome.DECLINED, i);
+        }
+
+        assertEquals(1, mark);
+        assertEquals(List.of(6L, 7L, 8L, 9L), sequences(journal.entriesSince(mark)));
+        assertEquals(List.of(8L, 9L), sequences(journal.entriesSince(8)));
+        assertTrue(journal.entriesSince(journal.getNextSequence()).isEmpty());
+    }
+
+    @Test
+    @Story("Summary")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should count entries in the window per endpoint and outcome")
+    void shouldSummarizeCountsAndRates() {
+        GateJournal journal = new GateJournal(64);
+        long now = System.nanoTime();
+        long old = now - TimeUnit.SECONDS.toNanos(120);
+        journal.record(old, old + 1_000_000, GateEndpoint.PAYMENT, GateJournal.Outcome.APPROVED, APPROVED_CARD, 4500000, null);
+        for (int i = 0; i < 3; i++) {
+            journal.record(now, now + 2_000_000, GateEndpoint.PAYMENT, GateJournal.Outcome.APPROVED, APPROVED_CARD, 4500000, null);
+        }
+        journal.record(now, now + 2_000_000, GateEndpoint.CREDIT, GateJournal.Outcome.DECLINED, DECLINED_CARD, 4500000, null);
+        journal.record(now, 0, GateEndpoint.CREDIT, GateJournal.Outcome.TIMEOUT, DECLINED_CARD, 4500000, null);
+
+        String summary = journal.summary(60);
+
+        assertTrue(summary.startsWith("Gate journal: 6 requests recorded, 5 in the last 60 s (5.0 req/s)"), summary);
+        assertTrue(summary.matches("(?s).*\\n  PAYMENT +3 +3\\.0 req/s\\n.*"), summary);
+        assertTrue(summary.matches("(?s).*\\n  CREDIT +2 +2\\.0 req/s\\n.*"), summary);
+        assertTrue(summary.matches("(?s).*\\n  PAYMENT APPROVED +3 +3\\.0 +(1999|2000) +(1999|2000) +(1999|2000)\\n.*"), summary);
+        assertTrue(summary.matches("(?s).*\\n  CREDIT DECLINED +1 +1\\.0 .*"), summary);
+        assertTrue(summary.matches("(?s).*\\n  CREDIT TIMEOUT +1 +1\\.0 +0 +0 +0\\n.*"), summary);
+    }
+
+    @Test
+    @Story("Entries")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Should mask the card and survive a text round trip")
+    void shouldRoundTripEntryLine() {
+        GateJournal journal = new GateJournal(4);
+        long now = System.nanoTime();
+        journal.record(now, now + 1_000_000, GateEndpoint.PAYMENT, GateJournal.Outcome.APPROVED, APPROVED_CARD, 4500000, "t-1");
+        journal.record(now, 0, GateEndpoint.CREDIT, GateJournal.Outcome.RESET, null, -1, null);
+
+        List<GateJournal.Entry> entries = journal.entriesSince(0);
+        GateJournal.Entry paid = GateJournal.Entry.parse(entries.get(0).toLine());
+        GateJournal.Entry reset = GateJournal.Entry.parse(entries.get(1).toLine());
+
+        assertEquals("1111********4444", paid.cardMask);
+        assertEquals("t-1", paid.correlationId);
+        assertEquals(1000, paid.getServedMicros(), 1, "Microsecond truncation may lose one unit");
+        assertEquals("-", reset.cardMask);
+        assertNull(reset.correlationId);
+        assertEquals(-1, reset.getServedMicros());
+    }
+
+    private static void record(GateJournal journal, GateEndpoint endpoint, GateJournal.Outcome outcome, long amount) {
+        long now = System.nanoTime();
+        journal.record(now, now, endpoint, outcome, APPROVED_CARD, amount, null);
+    }
+
+    private static List<Long> sequences(List<GateJournal.Entry> entries) {
+        return entries.stream().map(entry -> entry.sequence).collect(Collectors.toList());
+    }
+}
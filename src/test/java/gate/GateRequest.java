@@ -0,0 +1,146 @@
+package gate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Разобранный HTTP/1.1-запрос к симулятору: метод, путь, тело, признак keep-alive
+ * и заголовок {@code X-Correlation-Id}, если магазин его передал.
+ */
+class GateRequest {
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+    private static final int MAX_BODY_BYTES = 16 * 1024;
+
+    final String method;
+    final String path;
+    final String query;
+    final byte[] body;
+    final boolean keepAlive;
+    final String correlationId;
+
+    private GateRequest(String method, String path, String query, byte[] body, boolean keepAlive, String correlationId) {
+        this.method = method;
+        this.path = path;
+        this.query = query;
+        this.body = body;
+        this.keepAlive = keepAlive;
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * Разбирает очередной запрос из буфера в режиме чтения и сдвигает его позицию за конец запроса.
+     *
+     * @return запрос или {@code null}, если в буфере ещё нет запроса целиком (позиция не меняется).
+     * @throws IllegalArgumentException если запрос некорректен или слишком велик.
+     */
+    static GateRequest parse(ByteBuffer in) {
+        int start = in.position();
+        int headerEnd = indexOfHeaderEnd(in, start);
+        if (headerEnd < 0) {
+            if (in.remaining() > MAX_HEADER_BYTES) {
+                throw new IllegalArgumentException("Request header is too large");
+            }
+            return null;
+        }
+        byte[] headerBytes = copy(in, start, headerEnd - start);
+        String[] lines = new String(headerBytes, StandardCharsets.ISO_8859_1).split("\r\n");
+        String[] requestLine = lines[0].split(" ");
+        if (requestLine.length != 3) {
+            throw new IllegalArgumentException("Malformed request line: " + lines[0]);
+        }
+        int contentLength = 0;
+        String correlationId = null;
+        boolean keepAlive = !"HTTP/1.0".equals(requestLine[2]);
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = lines[i].substring(0, colon).trim();
+            String value = lines[i].substring(colon + 1).trim();
+            if (name.equalsIgnoreCase("Content-Length")) {
+                contentLength = Integer.parseInt(value);
+            } else if (name.equalsIgnoreCase("Connection")) {
+                keepAlive = value.equalsIgnoreCase("keep-alive") || (keepAlive && !value.equalsIgnoreCase("close"));
+            } else if (name.equalsIgnoreCase(GateJournal.CORRELATION_HEADER)) {
+                correlationId = value;
+            } else if (name.equalsIgnoreCase("Transfer-Encoding")) {
+                throw new IllegalArgumentException("Chunked requests are not supported");
+            }
+        }
+        if (contentLength < 0 || contentLength > MAX_BODY_BYTES) {
+            throw new IllegalArgumentException("Unsupported Content-Length: " + contentLength);
+        }
+        int bodyStart = headerEnd + 4;
+        if (in.limit() - bodyStart < contentLength) {
+            return null;
+        }
+        byte[] body = copy(in, bodyStart, contentLength);
+        in.position(bodyStart + contentLength);
+        String target = requestLine[1];
+        int query = target.indexOf('?');
+        return new GateRequest(requestLine[0], query < 0 ? target : target.substring(0, query),
+                query < 0 ? "" : target.substring(query + 1), body, keepAlive, correlationId);
+    }
+
+    private static byte[] copy(ByteBuffer in, int from, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = in.duplicate();
+        view.position(from);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static int indexOfHeaderEnd(ByteBuffer in, int from) {
+        for (int i = from; i + 3 < in.limit(); i++) {
+            if (in.get(i) == '\r' && in.get(i + 1) == '\n' && in.get(i + 2) == '\r' && in.get(i + 3) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Значение параметра строки запроса или {@code defaultValue}, если параметра нет.
+     */
+    String queryParam(String name, String defaultValue) {
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return defaultValue;
+    }
+
+    /**
+     * Строковое значение поля верхнего уровня JSON-тела без полного разбора, например {@code "number"}.
+     */
+    String field(String name) {
+        String json = new String(body, StandardCharsets.UTF_8);
+        int key = json.indexOf("\"" + name + "\"");
+        if (key < 0) {
+            return null;
+        }
+        int colon = json.indexOf(':', key + name.length() + 2);
+        if (colon < 0) {
+            return null;
+        }
+        int valueStart = colon + 1;
+        while (valueStart < json.length() && Character.isWhitespace(json.charAt(valueStart))) {
+            valueStart++;
+        }
+        if (valueStart >= json.length()) {
+            return null;
+        }
+        if (json.charAt(valueStart) == '"') {
+            int end = json.indexOf('"', valueStart + 1);
+            return end < 0 ? null : json.substring(valueStart + 1, end);
+        }
+        int end = valueStart;
+        while (end < json.length() && ",}] \r\n\t".indexOf(json.charAt(end)) < 0) {
+            end++;
+        }
+        return json.substring(valueStart, end);
+    }
+}
@@ -0,0 +1,59 @@
+package gate;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ответы симулятора, заранее закодированные в байты вместе с заголовками. На каждый запрос
+ * отдаётся {@link ByteBuffer#duplicate()} общего буфера, без сборки строк и копирования тела.
+ */
+public enum GateResponse {
+    APPROVED(200, "OK", "{\"status\":\"APPROVED\"}"),
+    DECLINED(200, "OK", "{\"status\":\"DECLINED\"}"),
+    BAD_REQUEST(400, "Bad Request", ""),
+    NOT_FOUND(404, "Not Found", ""),
+    METHOD_NOT_ALLOWED(405, "Method Not Allowed", ""),
+    INTERNAL_SERVER_ERROR(500, "Internal Server Error", "{\"status\":500,\"error\":\"Internal Server Error\"}");
+
+    private final int code;
+    private final ByteBuffer keepAlive;
+    private final ByteBuffer close;
+
+    GateResponse(int code, String reason, String body) {
+        this.code = code;
+        this.keepAlive = encode(code, reason, body, "keep-alive");
+        this.close = encode(code, reason, body, "close");
+    }
+
+    private static ByteBuffer encode(int code, String reason, String body, String connection) {
+        return encode(code, reason, "application/json", body, connection);
+    }
+
+    /**
+     * Ответ, собираемый на каждый запрос; используется только для редких служебных запросов.
+     */
+    static ByteBuffer text(int code, String reason, String body, boolean keepAlive) {
+        return encode(code, reason, "text/plain; charset=utf-8", body, keepAlive ? "keep-alive" : "close");
+    }
+
+    private static ByteBuffer encode(int code, String reason, String contentType, String body, String connection) {
+        byte[] content = body.getBytes(StandardCharsets.UTF_8);
+        String head = "HTTP/1.1 " + code + " " + reason + "\r\n"
+                + (content.length > 0 ? "Content-Type: " + contentType + "\r\n" : "")
+                + "Content-Length: " + content.length + "\r\n"
+                + "Connection: " + connection + "\r\n"
+                + "\r\n";
+        byte[] headBytes = head.getBytes(StandardCharsets.US_ASCII);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(headBytes.length + content.length);
+        buffer.put(headBytes).put(content).flip();
+        return buffer.asReadOnlyBuffer();
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    ByteBuffer buffer(boolean keepAlive) {
+        return (keepAlive ? this.keepAlive : close).duplicate();
+    }
+}
@@ -0,0 +1,445 @@
+package gate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Локальный симулятор банковских сервисов {@code /payment} и {@code /credit} вместо удалённого
+ * {@code 185.119.57.197:9999}. Один поток обслуживает все соединения через {@link Selector}:
+ * keep-alive, конвейерные запросы и заранее закодированные ответы ({@link GateResponse}).
+ * <p>
+ * Карта {@code 1111 2222 3333 4444} одобряется, {@code 5555 6666 7777 8888} отклоняется,
+ * на любую другую карту отвечает {@code 400 Bad Request}.
+ * <p>
+ * Задержки и сбои задаются {@link GateBehavior} и меняются во время работы через {@code POST /admin/behavior}.
+ * Отложенные ответы хранятся в очереди по времени отправки, поток-селектор ждёт не дольше, чем до ближайшего из них,
+ * поэтому задержка ответа не занимает поток.
+ * <p>
+ * Каждый запрос к {@code /payment} и {@code /credit} записывается в {@link GateJournal}: сводка доступна
+ * через {@code GET /admin/journal?window=60}, сами записи — через {@code GET /admin/journal/entries?since=N}.
+ * <p>
+ * Запуск: {@code ./gradlew gateSimulator -Dgate.port=9999}; из тестов — {@link #start(InetSocketAddress)}.
+ */
+public class GateSimulator implements Closeable {
+    static final String APPROVED_CARD = "1111222233334444";
+    static final String DECLINED_CARD = "5555666677778888";
+    static final String ADMIN_BEHAVIOR = "/admin/behavior";
+    static final String ADMIN_JOURNAL = "/admin/journal";
+    static final String ADMIN_JOURNAL_ENTRIES = "/admin/journal/entries";
+
+    private static final int READ_BUFFER_BYTES = 32 * 1024;
+
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Thread loop;
+    private final Random random = new Random();
+    private final GateJournal journal;
+    private final PriorityQueue<Scheduled> scheduled = new PriorityQueue<>(
+            Comparator.comparingLong((Scheduled s) -> s.dueNanos).thenComparingLong(s -> s.sequence));
+    private long sequence;
+    private volatile GateBehavior behavior;
+    private volatile boolean running = true;
+
+    private GateSimulator(InetSocketAddress address, GateBehavior behavior, int journalCapacity) throws IOException {
+        this.behavior = behavior;
+        this.journal = new GateJournal(journalCapacity);
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+        server.bind(address, 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        loop = new Thread(this::run, "gate-simulator");
+    }
+
+    public static GateSimulator start(InetSocketAddress address) throws IOException {
+        return start(address, GateBehavior.DEFAULT);
+    }
+
+    public static GateSimulator start(InetSocketAddress address, GateBehavior behavior) throws IOException {
+        return start(address, behavior, 1 << 16);
+    }
+
+    public static GateSimulator start(InetSocketAddress address, GateBehavior behavior, int journalCapacity) throws IOException {
+        GateSimulator simulator = new GateSimulator(address, behavior, journalCapacity);
+        simulator.loop.start();
+        return simulator;
+    }
+
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    public GateJournal getJournal() {
+        return journal;
+    }
+
+    public GateBehavior getBehavior() {
+        return behavior;
+    }
+
+    /**
+     * Заменяет задержки и сбои; действует на запросы, полученные после вызова.
+     */
+    public void configure(GateBehavior behavior) {
+        this.behavior = behavior;
+    }
+
+    private void run() {
+        try {
+            while (running) {
+                select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            if (key.isReadable()) {
+                                read(key);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(key);
+                            }
+                        }
+                    } catch (IOException e) {
+                        closeConnection(key);
+                    }
+                }
+                releaseDue();
+            }
+        } catch (IOException e) {
+            if (running) {
+                System.out.println("Gate simulator stopped: " + e);
+            }
+        }
+    }
+
+    private void select() throws IOException {
+        Scheduled next = scheduled.peek();
+        if (next == null) {
+            selector.select();
+            return;
+        }
+        long waitNanos = next.dueNanos - System.nanoTime();
+        if (waitNanos <= 0) {
+            selector.selectNow();
+        } else {
+            selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos + TimeUnit.MILLISECONDS.toNanos(1) - 1)));
+        }
+    }
+
+    private void releaseDue() {
+        long now = System.nanoTime();
+        while (!scheduled.isEmpty() && scheduled.peek().dueNanos <= now) {
+            Scheduled due = scheduled.poll();
+            if (!due.key.isValid()) {
+                continue;
+            }
+            Connection connection = (Connection) due.key.attachment();
+            connection.scheduled--;
+            connection.out.add(due.response);
+            try {
+                flush(due.key);
+            } catch (IOException e) {
+                closeConnection(due.key);
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection());
+        }
+    }
+
+    private void read(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        if (channel.read(connection.in) < 0) {
+            closeConnection(key);
+            return;
+        }
+        connection.in.flip();
+        try {
+            GateRequest request;
+            while (!connection.stalled && !connection.closeAfterWrite && (request = GateRequest.parse(connection.in)) != null) {
+                if (!respond(key, connection, request)) {
+                    return;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            schedule(key, connection, GateResponse.BAD_REQUEST.buffer(false), System.nanoTime());
+            connection.closeAfterWrite = true;
+        }
+        if (connection.stalled) {
+            connection.in.clear();
+        } else {
+            connection.in.compact();
+        }
+        flush(key);
+    }
+
+    /**
+     * @return {@code false}, если соединение сброшено и дальше не обслуживается.
+     */
+    private boolean respond(SelectionKey key, Connection connection, GateRequest request) {
+        long now = System.nanoTime();
+        connection.closeAfterWrite = !request.keepAlive;
+        if (request.path.startsWith("/admin/")) {
+            schedule(key, connection, admin(request), now);
+            return true;
+        }
+        GateResponse response = handle(request);
+        GateEndpoint endpoint = GateEndpoint.of(request.path);
+        if (endpoint == null || response == GateResponse.METHOD_NOT_ALLOWED) {
+            schedule(key, connection, response.buffer(request.keepAlive), now);
+            return true;
+        }
+        GateBehavior.Endpoint configured = behavior.get(endpoint);
+        String cardNumber = request.field("number");
+        long amount = amount(request);
+        switch (configured.getFaults().sample(random)) {
+            case TIMEOUT:
+                journal.record(now, 0, endpoint, GateJournal.Outcome.TIMEOUT, cardNumber, amount, request.correlationId);
+                connection.stalled = true;
+                connection.closeAfterWrite = false;
+                return true;
+            case RESET:
+                journal.record(now, now, endpoint, GateJournal.Outcome.RESET, cardNumber, amount, request.correlationId);
+                reset(key);
+                return false;
+            case ERROR:
+                response = GateResponse.INTERNAL_SERVER_ERROR;
+                break;
+            default:
+                break;
+        }
+        long due = schedule(key, connection, response.buffer(request.keepAlive), now + configured.getLatency().sampleNanos(random));
+        journal.record(now, due, endpoint, GateJournal.Outcome.of(response), cardNumber, amount, request.correlationId);
+        return true;
+    }
+
+    private static long amount(GateRequest request) {
+        String amount = request.field("amount");
+        try {
+            return amount == null ? -1 : Long.parseLong(amount);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private ByteBuffer admin(GateRequest request) {
+        try {
+            switch (request.path) {
+                case ADMIN_BEHAVIOR:
+                    return adminBehavior(request);
+                case ADMIN_JOURNAL:
+                    return GateResponse.text(200, "OK",
+                            journal.summary(Long.parseLong(request.queryParam("window", "60"))), request.keepAlive);
+                case ADMIN_JOURNAL_ENTRIES:
+                    return GateResponse.text(200, "OK",
+                            entries(Long.parseLong(request.queryParam("since", "0"))), request.keepAlive);
+                default:
+                    return GateResponse.NOT_FOUND.buffer(request.keepAlive);
+            }
+        } catch (NumberFormatException e) {
+            return GateResponse.text(400, "Bad Request", e.getMessage() + "\n", request.keepAlive);
+        }
+    }
+
+    /**
+     * Первая строка — {@code next=<номер следующей записи>}, далее записи в формате
+     * {@code sequence,received_us,responded_us,endpoint,outcome,card_mask,amount,correlation_id}.
+     */
+    private String entries(long since) {
+        StringBuilder out = new StringBuilder("next=").append(journal.getNextSequence()).append('\n');
+        for (GateJournal.Entry entry : journal.entriesSince(since)) {
+            out.append(entry.toLine()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private ByteBuffer adminBehavior(GateRequest request) {
+        if ("GET".equals(request.method)) {
+            return GateResponse.text(200, "OK", behavior.toString(), request.keepAlive);
+        }
+        if (!"POST".equals(request.method)) {
+            return GateResponse.METHOD_NOT_ALLOWED.buffer(request.keepAlive);
+        }
+        try {
+            Properties changes = new Properties();
+            changes.load(new StringReader(new String(request.body, StandardCharsets.UTF_8)));
+            behavior = behavior.with(changes);
+            System.out.print("Gate behavior changed:\n" + behavior);
+            return GateResponse.text(200, "OK", behavior.toString(), request.keepAlive);
+        } catch (IOException | IllegalArgumentException e) {
+            return GateResponse.text(400, "Bad Request", e.getMessage() + "\n", request.keepAlive);
+        }
+    }
+
+    /**
+     * Ставит ответ в очередь соединения. Ответы одного соединения уходят в порядке запросов,
+     * поэтому время отправки не может быть раньше, чем у предыдущего ответа этого соединения.
+     *
+     * @return время отправки по {@link System#nanoTime()} с учётом порядка ответов.
+     */
+    private long schedule(SelectionKey key, Connection connection, ByteBuffer response, long dueNanos) {
+        long due = Math.max(dueNanos, connection.lastDueNanos);
+        connection.lastDueNanos = due;
+        if (connection.scheduled == 0 && due <= System.nanoTime()) {
+            connection.out.add(response);
+            return due;
+        }
+        connection.scheduled++;
+        scheduled.add(new Scheduled(due, sequence++, key, response));
+        return due;
+    }
+
+    GateResponse handle(GateRequest request) {
+        GateEndpoint endpoint = GateEndpoint.of(request.path);
+        if (endpoint == null) {
+            return GateResponse.NOT_FOUND;
+        }
+        if (!"POST".equals(request.method)) {
+            return GateResponse.METHOD_NOT_ALLOWED;
+        }
+        return decide(request.field("number"));
+    }
+
+    /**
+     * Решение банка по номеру карты; пробелы в номере не учитываются.
+     */
+    static GateResponse decide(String cardNumber) {
+        if (cardNumber == null) {
+            return GateResponse.BAD_REQUEST;
+        }
+        String digits = cardNumber.replace(" ", "");
+        if (APPROVED_CARD.equals(digits)) {
+            return GateResponse.APPROVED;
+        }
+        if (DECLINED_CARD.equals(digits)) {
+            return GateResponse.DECLINED;
+        }
+        return GateResponse.BAD_REQUEST;
+    }
+
+    private void flush(SelectionKey key) throws IOException {
+        SocketChannel channel = (SocketChannel) key.channel();
+        Connection connection = (Connection) key.attachment();
+        while (!connection.out.isEmpty()) {
+            ByteBuffer head = connection.out.peek();
+            channel.write(head);
+            if (head.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            connection.out.poll();
+        }
+        if (connection.closeAfterWrite && connection.scheduled == 0) {
+            closeConnection(key);
+        } else {
+            key.interestOps(SelectionKey.OP_READ);
+        }
+    }
+
+    /**
+     * Закрывает соединение с SO_LINGER 0: клиент получает RST вместо ответа.
+     */
+    private void reset(SelectionKey key) {
+        try {
+            ((SocketChannel) key.channel()).setOption(StandardSocketOptions.SO_LINGER, 0);
+        } catch (IOException ignored) {
+            // соединение уже закрыто клиентом
+        }
+        closeConnection(key);
+    }
+
+    private void closeConnection(SelectionKey key) {
+        key.cancel();
+        try {
+            key.channel().close();
+        } catch (IOException ignored) {
+            // соединение уже закрыто клиентом
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    private static class Connection {
+        final ByteBuffer in = ByteBuffer.allocate(READ_BUFFER_BYTES);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        boolean closeAfterWrite;
+        boolean stalled;
+        int scheduled;
+        long lastDueNanos = Long.MIN_VALUE;
+    }
+
+    private static class Scheduled {
+        final long dueNanos;
+        final long sequence;
+        final SelectionKey key;
+        final ByteBuffer response;
+
+        Scheduled(long dueNanos, long sequence, SelectionKey key, ByteBuffer response) {
+            this.dueNanos = dueNanos;
+            this.sequence = sequence;
+            this.key = key;
+            this.response = response;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        InetSocketAddress address = new InetSocketAddress(System.getProperty("gate.host", "0.0.0.0"),
+                Integer.getInteger("gate.port", 9999));
+        GateSimulator simulator = start(address, GateBehavior.fromSystemProperties(),
+                Integer.getInteger("gate.journal.capacity", 1 << 16));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                simulator.close();
+            } catch (IOException ignored) {
+                // процесс всё равно завершается
+            }
+        }));
+        System.out.println("Gate simulator listening on " + address.getHostString() + ":" + simulator.getPort()
+                + " (/payment, /credit, " + ADMIN_BEHAVIOR + ", " + ADMIN_JOURNAL + ")");
+        System.out.print(simulator.getBehavior());
+    }
+}
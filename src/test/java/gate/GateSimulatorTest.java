@@ -0,0 +1,334 @@
+package gate;
+
+import io.qameta.allure.*;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Epic("Test Infrastructure")
+@Feature("Bank Gate Simulator")
+@Owner("Veronika Obukhova")
+@Tag("GATE")
+public class GateSimulatorTest {
+    private static final String APPROVED_BODY = "{\"number\":\"1111 2222 3333 4444\",\"amount\":4500000}";
+    private static final String DECLINED_BODY = "{\"number\":\"5555 6666 7777 8888\",\"amount\":4500000}";
+    private static final String UNKNOWN_CARD_BODY = "{\"number\":\"4444 3333 2222 1111\",\"amount\":4500000}";
+
+    private static GateSimulator simulator;
+
+    @BeforeAll
+    static void startSimulator() throws IOException {
+        simulator = GateSimulator.start(new InetSocketAddress("localhost", 0));
+    }
+
+    @AfterAll
+    static void stopSimulator() throws IOException {
+        simulator.close();
+    }
+
+    @Test
+    @Story("Bank decision")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should approve payment with approved card")
+    void shouldApprovePaymentWithApprovedCard() throws IOException {
+        HttpReply reply = exchange(post("/payment", APPROVED_BODY, "close"));
+        assertEquals(200, reply.code);
+        assertEquals("{\"status\":\"APPROVED\"}", reply.body);
+    }
+
+    @Test
+    @Story("Bank decision")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should decline credit with declined card")
+    void shouldDeclineCreditWithDeclinedCard() throws IOException {
+        HttpReply reply = exchange(post("/credit", DECLINED_BODY, "close"));
+        assertEquals(200, reply.code);
+        assertEquals("{\"status\":\"DECLINED\"}", reply.body);
+    }
+
+    @Test
+    @Story("Bank decision")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should return 400 for unknown card")
+    void shouldReturnBadRequestForUnknownCard() throws IOException {
+        assertEquals(400, exchange(post("/payment", UNKNOWN_CARD_BODY, "close")).code);
+    }
+
+    @Test
+    @Story("Request validation")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should return 404 for unknown path")
+    void shouldReturnNotFoundForUnknownPath() throws IOException {
+        assertEquals(404, exchange(post("/refund", APPROVED_BODY, "close")).code);
+    }
+
+    @Test
+    @Story("Request validation")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should return 405 for GET to payment")
+    void shouldReturnMethodNotAllowedForGet() throws IOException {
+        assertEquals(405, exchange("GET /payment HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n").code);
+    }
+
+    @Test
+    @Story("Connections")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should serve sequential requests over one keep-alive connection")
+    void shouldReuseKeepAliveConnection() throws IOException {
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            InputStream in = socket.getInputStream();
+            for (int i = 0; i < 3; i++) {
+                out.write(bytes(post("/payment", APPROVED_BODY, "keep-alive")));
+                out.flush();
+                HttpReply reply = HttpReply.read(in);
+                assertEquals(200, reply.code);
+                assertEquals("keep-alive", reply.connection);
+            }
+            out.write(bytes(post("/credit", DECLINED_BODY, "close")));
+            out.flush();
+            HttpReply last = HttpReply.read(in);
+            assertEquals("{\"status\":\"DECLINED\"}", last.body);
+            assertEquals("close", last.connection);
+            assertEquals(-1, in.read(), "Connection should be closed after Connection: close");
+        }
+    }
+
+    @Test
+    @Story("Connections")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should answer pipelined requests in order")
+    void shouldAnswerPipelinedRequestsInOrder() throws IOException {
+        String pipeline = post("/payment", APPROVED_BODY, "keep-alive")
+                + post("/payment", DECLINED_BODY, "keep-alive")
+                + post("/credit", UNKNOWN_CARD_BODY, "keep-alive")
+                + "GET /credit HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                + post("/credit", APPROVED_BODY, "close");
+        try (Socket socket = connect()) {
+            socket.getOutputStream().write(bytes(pipeline));
+            socket.getOutputStream().flush();
+            InputStream in = socket.getInputStream();
+            assertEquals("{\"status\":\"APPROVED\"}", HttpReply.read(in).body);
+            assertEquals("{\"status\":\"DECLINED\"}", HttpReply.read(in).body);
+            assertEquals(400, HttpReply.read(in).code);
+            assertEquals(405, HttpReply.read(in).code);
+            assertEquals("{\"status\":\"APPROVED\"}", HttpReply.read(in).body);
+        }
+    }
+
+    @Test
+    @Story("Connections")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should assemble a request split across several reads")
+    void shouldAssembleRequestSplitAcrossReads() throws Exception {
+        byte[] request = bytes(post("/payment", APPROVED_BODY, "close"));
+        int[] cuts = {5, 30, request.length - APPROVED_BODY.length() + 7, request.length};
+        try (Socket socket = connect()) {
+            OutputStream out = socket.getOutputStream();
+            int from = 0;
+            for (int cut : cuts) {
+                out.write(request, from, cut - from);
+                out.flush();
+                from = cut;
+                Thread.sleep(20);
+            }
+            HttpReply reply = HttpReply.read(socket.getInputStream());
+            assertEquals(200, reply.code);
+            assertEquals("{\"status\":\"APPROVED\"}", reply.body);
+        }
+    }
+
+    @Test
+    @Story("Latency")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should delay the response by a fixed latency")
+    void shouldHonorFixedLatency() throws IOException {
+        try (GateSimulator delayed = start("payment.latency", "fixed:300")) {
+            long start = System.nanoTime();
+            HttpReply reply = exchange(delayed, post("/payment", APPROVED_BODY, "close"));
+            long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+            assertEquals(200, reply.code);
+            assertTrue(elapsedMillis >= 300, "Response came after " + elapsedMillis + " ms");
+            assertEquals(200, exchange(delayed, post("/credit", APPROVED_BODY, "close")).code, "Credit has no latency configured");
+        }
+    }
+
+    @Test
+    @Story("Faults")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should close the connection without a response on a RESET fault")
+    void shouldResetConnection() throws IOException {
+        try (GateSimulator faulty = start("payment.faults", "reset=1");
+             Socket socket = connect(faulty)) {
+            socket.getOutputStream().write(bytes(post("/payment", APPROVED_BODY, "keep-alive")));
+            socket.getOutputStream().flush();
+            int read;
+            try {
+                read = socket.getInputStream().read();
+            } catch (SocketException e) {
+                read = -1;
+            }
+            assertEquals(-1, read, "Connection should be closed without a response");
+        }
+    }
+
+    @Test
+    @Story("Faults")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should answer 500 on an ERROR fault")
+    void shouldReturnInternalServerErrorOnErrorFault() throws IOException {
+        try (GateSimulator faulty = start("payment.faults", "error=1")) {
+            assertEquals(500, exchange(faulty, post("/payment", APPROVED_BODY, "close")).code);
+            assertEquals(1, faulty.getJournal().getNextSequence());
+        }
+    }
+
+    @Test
+    @Story("Faults")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should keep the connection open without a response on a TIMEOUT fault")
+    void shouldNotAnswerOnTimeoutFault() throws IOException {
+        try (GateSimulator faulty = start("payment.faults", "timeout=1");
+             Socket socket = connect(faulty)) {
+            socket.setSoTimeout(500);
+            socket.getOutputStream().write(bytes(post("/payment", APPROVED_BODY, "close")));
+            socket.getOutputStream().flush();
+            assertThrows(SocketTimeoutException.class, () -> socket.getInputStream().read());
+        }
+    }
+
+    @Test
+    @Story("Runtime configuration")
+    @Severity(SeverityLevel.NORMAL)
+    @DisplayName("Should apply behavior posted to /admin/behavior to the next request")
+    void shouldSwitchBehaviorAtRuntime() throws IOException {
+        try (GateSimulator switchable = GateSimulator.start(new InetSocketAddress("localhost", 0))) {
+            assertEquals(200, exchange(switchable, post("/payment", APPROVED_BODY, "close")).code);
+
+            HttpReply changed = exchange(switchable, post(GateSimulator.ADMIN_BEHAVIOR, "payment.faults=error=1\n", "close"));
+            assertEquals(200, changed.code);
+            assertTrue(changed.body.contains("payment.faults=timeout=0.0,reset=0.0,error=1.0"), changed.body);
+
+            assertEquals(500, exchange(switchable, post("/payment", APPROVED_BODY, "close")).code);
+            assertEquals(200, exchange(switchable, post("/credit", APPROVED_BODY, "close")).code);
+        }
+    }
+
+    @Test
+    @Story("Runtime configuration")
+    @Severity(SeverityLevel.MINOR)
+    @DisplayName("Should reject an unknown key posted to /admin/behavior and keep the behavior")
+    void shouldRejectUnknownBehaviorKey() throws IOException {
+        try (GateSimulator switchable = GateSimulator.start(new InetSocketAddress("localhost", 0))) {
+            assertEquals(400, exchange(switchable, post(GateSimulator.ADMIN_BEHAVIOR, "refund.faults=error=1\n", "close")).code);
+            assertEquals(200, exchange(switchable, post("/payment", APPROVED_BODY, "close")).code);
+        }
+    }
+
+    private static GateSimulator start(String key, String value) throws IOException {
+        Properties behavior = new Properties();
+        behavior.setProperty(key, value);
+        return GateSimulator.start(new InetSocketAddress("localhost", 0), GateBehavior.DEFAULT.with(behavior));
+    }
+
+    private static Socket connect() throws IOException {
+        return connect(simulator);
+    }
+
+    private static Socket connect(GateSimulator target) throws IOException {
+        Socket socket = new Socket("localhost", target.getPort());
+        socket.setSoTimeout(5_000);
+        return socket;
+    }
+
+    private static HttpReply exchange(String request) throws IOException {
+        return exchange(simulator, request);
+    }
+
+    private static HttpReply exchange(GateSimulator target, String request) throws IOException {
+        try (Socket socket = connect(target)) {
+            socket.getOutputStream().write(bytes(request));
+            socket.getOutputStream().flush();
+            return HttpReply.read(socket.getInputStream());
+        }
+    }
+
+    private static String post(String path, String body, String connection) {
+        return "POST " + path + " HTTP/1.1\r\n"
+                + "Host: localhost\r\n"
+                + "Content-Type: application/json\r\n"
+                + "Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length + "\r\n"
+                + "Connection: " + connection + "\r\n"
+                + "\r\n"
+                + body;
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static class HttpReply {
+        final int code;
+        final String connection;
+        final String body;
+
+        HttpReply(int code, String connection, String body) {
+            this.code = code;
+            this.connection = connection;
+            this.body = body;
+        }
+
+        static HttpReply read(InputStream in) throws IOException {
+            String statusLine = readLine(in);
+            int code = Integer.parseInt(statusLine.split(" ")[1]);
+            int length = 0;
+            String connection = null;
+            String header;
+            while (!(header = readLine(in)).isEmpty()) {
+                int colon = header.indexOf(':');
+                String name = header.substring(0, colon).trim();
+                String value = header.substring(colon + 1).trim();
+                if ("Content-Length".equalsIgnoreCase(name)) {
+                    length = Integer.parseInt(value);
+                } else if ("Connection".equalsIgnoreCase(name)) {
+                    connection = value;
+                }
+            }
+            byte[] body = in.readNBytes(length);
+            return new HttpReply(code, connection, new String(body, StandardCharsets.UTF_8));
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b < 0) {
+                    throw new IOException("Connection closed before the end of the response");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.US_ASCII);
+        }
+    }
+}
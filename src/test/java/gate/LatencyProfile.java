@@ -0,0 +1,85 @@
+package gate;
+
+import lombok.Value;
+
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Распределение задержки ответа симулятора. Задаётся строкой:
+ * <ul>
+ *     <li>{@code fixed:20} — всегда 20 мс;</li>
+ *     <li>{@code uniform:10-50} — равномерно от 10 до 50 мс;</li>
+ *     <li>{@code lognormal:30,0.5} — логнормальное с медианой 30 мс и sigma 0.5;</li>
+ *     <li>{@code bimodal:20,2000,0.05} — 20 мс, но 5% ответов с задержкой 2000 мс (длинный хвост).</li>
+ * </ul>
+ */
+@Value
+public class LatencyProfile {
+
+    public enum Kind {
+        FIXED,
+        UNIFORM,
+        LOGNORMAL,
+        BIMODAL
+    }
+
+    public static final LatencyProfile NONE = new LatencyProfile(Kind.FIXED, 0, 0, 0);
+
+    Kind kind;
+    double first;
+    double second;
+    double third;
+
+    public long sampleNanos(Random random) {
+        double millis;
+        switch (kind) {
+            case UNIFORM:
+                millis = first + random.nextDouble() * (second - first);
+                break;
+            case LOGNORMAL:
+                millis = first * Math.exp(second * random.nextGaussian());
+                break;
+            case BIMODAL:
+                millis = random.nextDouble() < third ? second : first;
+                break;
+            default:
+                millis = first;
+        }
+        return (long) (Math.max(millis, 0) * TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    public static LatencyProfile parse(String spec) {
+        String[] kindAndArgs = spec.trim().split(":", 2);
+        Kind kind = Kind.valueOf(kindAndArgs[0].trim().toUpperCase(Locale.ROOT));
+        String[] args = kindAndArgs.length > 1 ? kindAndArgs[1].split("[,-]") : new String[0];
+        int expected = kind == Kind.FIXED ? 1 : kind == Kind.BIMODAL ? 3 : 2;
+        if (args.length != expected) {
+            throw new IllegalArgumentException("Latency profile " + kind + " expects " + expected + " arguments: " + spec);
+        }
+        double[] values = new double[3];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = Double.parseDouble(args[i].trim());
+        }
+        return new LatencyProfile(kind, values[0], values[1], values[2]);
+    }
+
+    @Override
+    public String toString() {
+        switch (kind) {
+            case UNIFORM:
+                return String.format(Locale.ROOT, "uniform:%s-%s", format(first), format(second));
+            case LOGNORMAL:
+                return String.format(Locale.ROOT, "lognormal:%s,%s", format(first), format(second));
+            case BIMODAL:
+                return String.format(Locale.ROOT, "bimodal:%s,%s,%s", format(first), format(second), format(third));
+            default:
+                return "fixed:" + format(first);
+        }
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? String.valueOf((long) value) : String.valueOf(value);
+    }
+}
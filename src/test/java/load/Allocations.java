@@ -0,0 +1,21 @@
+package load;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Объём памяти, выделенной текущим потоком, по данным HotSpot; {@code -1}, если JVM это не поддерживает.
+ */
+class Allocations {
+    private Allocations() {
+    }
+
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    static long currentThread() {
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,157 @@
+package load;
+
+import data.api.AsyncApiHelper;
+import data.api.AsyncResponse;
+import io.restassured.http.Method;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Генератор нагрузки на API поверх {@link AsyncApiHelper}: открытая модель с постоянной интенсивностью
+ * или закрытая с фиксированным числом пользователей (см. {@link LoadProfile}).
+ * <p>
+ * В обеих моделях у каждого запроса есть момент отправки по расписанию. В закрытой модели с заданной
+ * интенсивностью пользователь отправляет запросы с шагом {@code concurrency / rate}; если ответ пришёл позже,
+ * следующий запрос уходит с опозданием, и оно учитывается в скорректированной задержке (см. {@link LoadStats}).
+ * Без интенсивности пользователь отправляет следующий запрос сразу после ответа.
+ */
+public class LoadEngine {
+
+    private final LoadProfile profile;
+    private final RequestSource source;
+    private final LoadStats stats = new LoadStats();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final AtomicLong senderAllocatedBytes = new AtomicLong();
+    private final AtomicLong sentRequests = new AtomicLong();
+
+    public LoadEngine(LoadProfile profile, RequestSource source) {
+        if (profile.getDuration().isZero() && profile.getRequests() == 0) {
+            throw new IllegalArgumentException("Load profile needs a duration or a request count");
+        }
+        if (profile.getModel() == LoadProfile.Model.OPEN && profile.getRatePerSecond() <= 0) {
+            throw new IllegalArgumentException("Open load profile needs a positive rate");
+        }
+        this.profile = profile;
+        this.source = source;
+    }
+
+    public LoadReport run() {
+        long start = System.nanoTime();
+        if (profile.getModel() == LoadProfile.Model.OPEN) {
+            runOpen(start);
+        } else {
+            runClosed(start);
+        }
+        drain();
+        long perRequest = sentRequests.get() == 0 || senderAllocatedBytes.get() < 0
+                ? -1 : senderAllocatedBytes.get() / sentRequests.get();
+        return stats.report(System.nanoTime() - start, perRequest);
+    }
+
+    private boolean hasMore(long index, long now, long start) {
+        boolean countLeft = profile.getRequests() == 0 || index < profile.getRequests();
+        boolean timeLeft = profile.getDuration().isZero() || now - start < profile.getDuration().toNanos();
+        return countLeft && timeLeft;
+    }
+
+    private void runOpen(long start) {
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / profile.getRatePerSecond());
+        long allocated = Allocations.currentThread();
+        for (long i = 0; ; i++) {
+            long intended = start + i * interval;
+            if (!hasMore(i, intended, start)) {
+                recordSenderAllocations(allocated, i);
+                return;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(source.next(i), intended);
+        }
+    }
+
+    private void runClosed(long start) {
+        AtomicLong counter = new AtomicLong();
+        List<Thread> users = new ArrayList<>();
+        boolean paced = profile.getRatePerSecond() > 0;
+        long pacing = paced
+                ? (long) (TimeUnit.SECONDS.toNanos(1) * profile.getConcurrency() / profile.getRatePerSecond()) : 0;
+        for (int u = 0; u < profile.getConcurrency(); u++) {
+            long userStart = start + pacing * u / profile.getConcurrency();
+            Thread user = new Thread(() -> {
+                long i;
+                long intended = userStart;
+                long sent = 0;
+                long allocated = Allocations.currentThread();
+                while (hasMore(i = counter.getAndIncrement(), System.nanoTime(), start)) {
+                    if (!paced) {
+                        intended = System.nanoTime();
+                    }
+                    long wait;
+                    while ((wait = intended - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    send(source.next(i), intended).join();
+                    intended += pacing;
+                    sent++;
+                }
+                recordSenderAllocations(allocated, sent);
+            }, "load-user-" + u);
+            user.start();
+            users.add(user);
+        }
+        for (Thread user : users) {
+            try {
+                user.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Память, выделенная потоком-отправителем на подготовку и отправку запросов (без потоков HttpClient).
+     */
+    private void recordSenderAllocations(long allocatedBefore, long requests) {
+        long allocatedAfter = Allocations.currentThread();
+        if (allocatedBefore < 0 || allocatedAfter < 0) {
+            senderAllocatedBytes.set(-1);
+            return;
+        }
+        senderAllocatedBytes.accumulateAndGet(allocatedAfter - allocatedBefore, (a, b) -> a < 0 ? a : a + b);
+        sentRequests.addAndGet(requests);
+    }
+
+    private CompletableFuture<AsyncResponse> send(LoadRequest request, long intended) {
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        return AsyncApiHelper.sendRequestAsync(request.getEndpoint(), request.getBody(), Method.POST)
+                .whenComplete((response, error) -> {
+                    try {
+                        if (error != null) {
+                            stats.record(request, Outcome.TRANSPORT_ERROR, intended, sent, System.nanoTime());
+                        } else {
+                            stats.record(request, Outcome.of(response), intended, response.getSentNanos(),
+                                    response.getReceivedNanos());
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                })
+                .exceptionally(error -> null);
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + profile.getDrainTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package load;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Параметры нагрузки. Прогон останавливается по истечении {@code duration} или после {@code requests} запросов,
+ * в зависимости от того, что наступит раньше (нулевое значение — ограничения нет).
+ */
+@Value
+@Builder
+public class LoadProfile {
+
+    public enum Model {
+        /**
+         * Открытая модель: запросы отправляются с постоянной интенсивностью независимо от ответов.
+         */
+        OPEN,
+        /**
+         * Закрытая модель: фиксированное число пользователей, каждый ждёт ответа перед следующим запросом.
+         */
+        CLOSED
+    }
+
+    Model model;
+    /**
+     * Запросов в секунду. Обязательна для открытой модели; в закрытой ограничивает темп пользователей,
+     * а при 0 пользователи отправляют запросы без пауз.
+     */
+    double ratePerSecond;
+    @Builder.Default
+    int concurrency = 10;
+    @Builder.Default
+    Duration duration = Duration.ofSeconds(30);
+    long requests;
+    @Builder.Default
+    Duration drainTimeout = Duration.ofSeconds(30);
+
+    public static LoadProfile fromSystemProperties() {
+        Model model = Model.valueOf(System.getProperty("load.model", Model.OPEN.name()));
+        return LoadProfile.builder()
+                .model(model)
+                .ratePerSecond(Double.parseDouble(System.getProperty("load.rate", model == Model.OPEN ? "100" : "0")))
+                .concurrency(Integer.getInteger("load.concurrency", 10))
+                .duration(Duration.ofSeconds(Long.getLong("load.durationSec", 30L)))
+                .requests(Long.getLong("load.requests", 0L))
+                .build();
+    }
+}
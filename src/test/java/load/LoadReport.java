@@ -0,0 +1,83 @@
+package load;
+
+import lombok.Value;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Итоги прогона: пропускная способность, доля ошибок, распределение итогов по {@code ApiStatus}
+ * и перцентили задержки (мкс) по каждой группе запросов и в целом. Для каждой группы выводятся
+ * две строки: задержка от запланированного момента отправки (corrected) и от фактического (raw).
+ */
+@Value
+public class LoadReport {
+    Map<String, BucketReport> buckets;
+    long elapsedNanos;
+    long senderBytesPerRequest;
+
+    @Value
+    public static class BucketReport {
+        Histogram latency;
+        Histogram rawLatency;
+        Map<Outcome, Long> outcomes;
+        long errors;
+
+        public long getCount() {
+            return latency.getTotalCount();
+        }
+
+        public double getErrorRate() {
+            return getCount() == 0 ? 0 : (double) errors / getCount();
+        }
+
+        BucketReport merge(BucketReport other) {
+            Histogram merged = latency.copy();
+            merged.add(other.latency);
+            Histogram mergedRaw = rawLatency.copy();
+            mergedRaw.add(other.rawLatency);
+            Map<Outcome, Long> counts = new EnumMap<>(Outcome.class);
+            counts.putAll(outcomes);
+            other.outcomes.forEach((outcome, count) -> counts.merge(outcome, count, Long::sum));
+            return new BucketReport(merged, mergedRaw, counts, errors + other.errors);
+        }
+    }
+
+    public BucketReport getTotal() {
+        return buckets.values().stream()
+                .reduce(BucketReport::merge)
+                .orElseGet(() -> new BucketReport(new Histogram(3), new Histogram(3), Map.of(), 0));
+    }
+
+    public double getThroughput(BucketReport bucket) {
+        return elapsedNanos == 0 ? 0 : bucket.getCount() / (elapsedNanos / 1e9);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("Load run of %.1f s, latency in us%n", elapsedNanos / 1e9));
+        out.append(String.format("  %-28s %-9s %9s %9s %7s %9s %9s %9s %9s %9s   %s%n",
+                "bucket", "latency", "requests", "req/s", "errors", "p50", "p90", "p99", "p99.9", "max", "outcomes"));
+        buckets.forEach((name, bucket) -> appendLine(out, name, bucket));
+        if (buckets.size() > 1) {
+            appendLine(out, "TOTAL", getTotal());
+        }
+        if (senderBytesPerRequest >= 0) {
+            out.append(String.format("  sender thread allocation: %d bytes/request%n", senderBytesPerRequest));
+        }
+        return out.toString();
+    }
+
+    private void appendLine(StringBuilder out, String name, BucketReport bucket) {
+        appendLine(out, name, "corrected", bucket.latency, bucket);
+        appendLine(out, "", "raw", bucket.rawLatency, bucket);
+    }
+
+    private void appendLine(StringBuilder out, String name, String kind, Histogram h, BucketReport bucket) {
+        out.append(String.format("  %-28s %-9s %9d %9.1f %6.2f%% %9d %9d %9d %9d %9d   %s%n",
+                name, kind, bucket.getCount(), getThroughput(bucket), bucket.getErrorRate() * 100,
+                h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+                h.getValueAtPercentile(99.9), h.getMaxValue(), kind.equals("raw") ? "" : bucket.outcomes));
+    }
+}
@@ -0,0 +1,16 @@
+package load;
+
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import lombok.Value;
+
+/**
+ * Один запрос нагрузки: группа для отчёта, эндпоинт, готовое тело и ожидаемый статус ответа.
+ */
+@Value
+public class LoadRequest {
+    String bucket;
+    ApiEndpoints endpoint;
+    byte[] body;
+    ApiStatus expectedStatus;
+}
@@ -0,0 +1,31 @@
+package load;
+
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import data.ui.DataHelper;
+
+/**
+ * Запуск нагрузки из Gradle: {@code ./gradlew loadTest -Dload.model=OPEN -Dload.rate=200 -Dload.durationSec=60}.
+ * Эндпоинт задаётся {@code -Dload.endpoint=PAY|CREDIT}, запросы отправляются с APPROVED-картой.
+ * С {@code -Dload.mix=default} или {@code -Dload.mix=PAY.APPROVED=40,CREDIT.BAD_REQUEST=5,...}
+ * запускается смесь {@link WorkloadMix}, отчёт выводится по каждой её части.
+ */
+public class LoadRunner {
+
+    public static void main(String[] args) {
+        LoadProfile profile = LoadProfile.fromSystemProperties();
+        int corpusSize = Integer.getInteger("load.corpus", 1024);
+        String mix = System.getProperty("load.mix");
+        RequestSource source;
+        if (mix != null && !mix.isBlank()) {
+            source = WorkloadMix.parse(mix, corpusSize, Long.getLong("load.seed", 1L));
+        } else {
+            ApiEndpoints endpoint = ApiEndpoints.valueOf(System.getProperty("load.endpoint", ApiEndpoints.PAY.name()));
+            source = RequestSources.validCardCorpus(endpoint, DataHelper.CardNumber.approvedCardNumber(),
+                    ApiStatus.APPROVED, corpusSize);
+        }
+        System.out.println(profile);
+        System.out.println(new LoadEngine(profile, source).run());
+        System.exit(0);
+    }
+}
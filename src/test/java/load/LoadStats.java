@@ -0,0 +1,91 @@
+package load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Потокобезопасный сбор результатов нагрузки по группам запросов: задержки в микросекундах
+ * (HdrHistogram, гистограммы разных групп и прогонов можно складывать) и счётчики итогов.
+ * <p>
+ * Задержка записывается дважды: от фактической отправки (raw) и от запланированного момента отправки
+ * (corrected). Если приложение тормозит и запросы уходят позже расписания, raw занижает хвост
+ * распределения (coordinated omission), а corrected учитывает время, проведённое запросом в очереди генератора.
+ */
+public class LoadStats {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * @param intendedNanos - момент отправки по расписанию ({@code System.nanoTime()}).
+     * @param sentNanos     - фактический момент отправки.
+     * @param receivedNanos - момент получения ответа или ошибки.
+     */
+    public void record(LoadRequest request, Outcome outcome, long intendedNanos, long sentNanos, long receivedNanos) {
+        record(request, outcome, outcome.matches(request.getExpectedStatus()), intendedNanos, sentNanos, receivedNanos);
+    }
+
+    /**
+     * @param expected - совпал ли ответ с ожидаемым; несовпадения считаются ошибками группы.
+     */
+    public void record(LoadRequest request, Outcome outcome, boolean expected,
+                       long intendedNanos, long sentNanos, long receivedNanos) {
+        Bucket bucket = buckets.computeIfAbsent(request.getBucket(), b -> new Bucket());
+        bucket.latency.recordValue(toMicros(receivedNanos - Math.min(intendedNanos, sentNanos)));
+        bucket.rawLatency.recordValue(toMicros(receivedNanos - sentNanos));
+        bucket.outcomes.get(outcome).increment();
+        if (!expected) {
+            bucket.errors.increment();
+        }
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(Math.max(nanos, 0));
+    }
+
+    public LoadReport report(long elapsedNanos) {
+        return report(elapsedNanos, -1);
+    }
+
+    /**
+     * @param senderBytesPerRequest - память, выделенная отправителем на один запрос, или {@code -1}.
+     */
+    public LoadReport report(long elapsedNanos, long senderBytesPerRequest) {
+        Map<String, LoadReport.BucketReport> reports = new LinkedHashMap<>();
+        buckets.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> reports.put(entry.getKey(), entry.getValue().report()));
+        return new LoadReport(reports, elapsedNanos, senderBytesPerRequest);
+    }
+
+    private static class Bucket {
+        final Recorder latency = new Recorder(3);
+        final Recorder rawLatency = new Recorder(3);
+        final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+        final LongAdder errors = new LongAdder();
+
+        Bucket() {
+            for (Outcome outcome : Outcome.values()) {
+                outcomes.put(outcome, new LongAdder());
+            }
+        }
+
+        LoadReport.BucketReport report() {
+            Histogram histogram = latency.getIntervalHistogram();
+            Histogram rawHistogram = rawLatency.getIntervalHistogram();
+            Map<Outcome, Long> counts = new EnumMap<>(Outcome.class);
+            outcomes.forEach((outcome, count) -> {
+                if (count.sum() > 0) {
+                    counts.put(outcome, count.sum());
+                }
+            });
+            return new LoadReport.BucketReport(histogram, rawHistogram, counts, errors.sum());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package load;
+
+import data.api.ApiStatus;
+import data.api.AsyncResponse;
+import data.api.ResponseContracts;
+
+/**
+ * Итог запроса нагрузки: распознанный {@link ApiStatus}, неизвестный ответ или ошибка транспорта.
+ * При {@code load.validateContract=true} ответ, не прошедший схему своего статуса, считается неизвестным.
+ */
+public enum Outcome {
+    APPROVED,
+    DECLINED,
+    BAD_REQUEST,
+    NOT_FOUND,
+    METHOD_NOT_ALLOWED,
+    UNEXPECTED_RESPONSE,
+    TRANSPORT_ERROR;
+
+    private static final boolean validateContract = Boolean.getBoolean("load.validateContract");
+
+    public static Outcome of(AsyncResponse response) {
+        Outcome outcome = classify(response);
+        if (validateContract && outcome != UNEXPECTED_RESPONSE && !matchesContract(outcome, response.getBody())) {
+            return UNEXPECTED_RESPONSE;
+        }
+        return outcome;
+    }
+
+    /**
+     * Тело, которое не разбирается как JSON, тоже не соответствует контракту и не роняет поток клиента.
+     */
+    private static boolean matchesContract(Outcome outcome, String body) {
+        try {
+            return ResponseContracts.matches(ApiStatus.valueOf(outcome.name()), ResponseContracts.parse(body));
+        } catch (AssertionError e) {
+            return false;
+        }
+    }
+
+    private static Outcome classify(AsyncResponse response) {
+        for (ApiStatus status : ApiStatus.values()) {
+            if (status.getCode() != response.getStatusCode()) {
+                continue;
+            }
+            if (status == ApiStatus.APPROVED || status == ApiStatus.DECLINED) {
+                if (response.getBody().contains("\"" + status.getMessage() + "\"")) {
+                    return valueOf(status.name());
+                }
+            } else {
+                return valueOf(status.name());
+            }
+        }
+        return UNEXPECTED_RESPONSE;
+    }
+
+    public boolean matches(ApiStatus expected) {
+        return expected != null && name().equals(expected.name());
+    }
+}
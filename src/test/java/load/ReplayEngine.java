@@ -0,0 +1,154 @@
+package load;
+
+import data.api.ApiJournal;
+import data.api.AsyncApiHelper;
+import data.api.AsyncResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизведение журнала {@link ApiJournal}, записанного функциональными тестами, как нагрузки.
+ * Журнал проигрывается {@code streams} потоками запросов одновременно, каждый со своим сдвигом по времени,
+ * интервалы между запросами делятся на {@code speed}. Ответ сверяется с ответом, полученным при записи:
+ * должны совпасть код и {@link Outcome}. Статус, который ожидал тест, на сверку не влияет и только
+ * добавляется к имени группы, если отличается от записанного ответа.
+ * <p>
+ * Задержка, как и в {@link LoadEngine}, считается от момента отправки по расписанию.
+ * <p>
+ * Запуск: {@code ./gradlew replayTraffic -Dreplay.file=build/api-journal.bin -Dreplay.speed=10 -Dreplay.streams=50}.
+ */
+public class ReplayEngine {
+
+    private final List<ApiJournal.Entry> entries;
+    private final double speed;
+    private final int streams;
+    private final int repeats;
+    private final Duration drainTimeout;
+    private final LoadStats stats = new LoadStats();
+    private final AtomicLong inFlight = new AtomicLong();
+    private final LoadRequest[] requests;
+    private final Outcome[] baselines;
+
+    public ReplayEngine(List<ApiJournal.Entry> entries, double speed, int streams, int repeats, Duration drainTimeout) {
+        if (entries.isEmpty() || speed <= 0 || streams <= 0 || repeats <= 0) {
+            throw new IllegalArgumentException("Replay needs entries and positive speed, streams and repeats");
+        }
+        this.entries = entries;
+        this.speed = speed;
+        this.streams = streams;
+        this.repeats = repeats;
+        this.drainTimeout = drainTimeout;
+        this.requests = new LoadRequest[entries.size()];
+        this.baselines = new Outcome[entries.size()];
+        for (int i = 0; i < requests.length; i++) {
+            ApiJournal.Entry entry = entries.get(i);
+            baselines[i] = entry.getResponseStatus() == null
+                    ? Outcome.UNEXPECTED_RESPONSE : Outcome.valueOf(entry.getResponseStatus().name());
+            String bucket = entry.getEndpoint() + " " + entry.getMethod() + " " + entry.getStatusCode() + " " + baselines[i];
+            if (entry.getAssertedStatus() != null && entry.getAssertedStatus() != entry.getResponseStatus()) {
+                bucket += " (test: " + entry.getAssertedStatus() + ")";
+            }
+            requests[i] = new LoadRequest(bucket, entry.getEndpoint(), entry.getBody(), entry.getResponseStatus());
+        }
+    }
+
+    /**
+     * Положение потока в журнале: номер прохода и записи, момент отправки по расписанию.
+     */
+    private static class Cursor {
+        final long startNanos;
+        int repeat;
+        int index;
+        long intendedNanos;
+
+        Cursor(long startNanos) {
+            this.startNanos = startNanos;
+        }
+    }
+
+    public LoadReport run() {
+        long span = (long) (entries.get(entries.size() - 1).getOffsetNanos() / speed) + TimeUnit.MILLISECONDS.toNanos(1);
+        long start = System.nanoTime();
+        PriorityQueue<Cursor> timeline = new PriorityQueue<>((a, b) -> Long.compare(a.intendedNanos, b.intendedNanos));
+        for (int s = 0; s < streams; s++) {
+            Cursor cursor = new Cursor(start + span * s / streams);
+            cursor.intendedNanos = intended(cursor, span);
+            timeline.add(cursor);
+        }
+        while (!timeline.isEmpty()) {
+            Cursor cursor = timeline.poll();
+            long wait;
+            while ((wait = cursor.intendedNanos - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(cursor.index, cursor.intendedNanos);
+            if (++cursor.index == entries.size()) {
+                cursor.index = 0;
+                cursor.repeat++;
+            }
+            if (cursor.repeat < repeats) {
+                cursor.intendedNanos = intended(cursor, span);
+                timeline.add(cursor);
+            }
+        }
+        drain();
+        return stats.report(System.nanoTime() - start);
+    }
+
+    private long intended(Cursor cursor, long span) {
+        return cursor.startNanos + span * cursor.repeat + (long) (entries.get(cursor.index).getOffsetNanos() / speed);
+    }
+
+    private void send(int index, long intended) {
+        ApiJournal.Entry entry = entries.get(index);
+        LoadRequest request = requests[index];
+        inFlight.incrementAndGet();
+        long sent = System.nanoTime();
+        CompletableFuture<AsyncResponse> response = entry.getBody() == null
+                ? AsyncApiHelper.sendRequestAsync(entry.getEndpoint(), entry.getMethod())
+                : AsyncApiHelper.sendRequestAsync(entry.getEndpoint(), entry.getBody(), entry.getMethod());
+        response.whenComplete((result, error) -> {
+                    try {
+                        if (error != null) {
+                            stats.record(request, Outcome.TRANSPORT_ERROR, false, intended, sent, System.nanoTime());
+                        } else {
+                            Outcome outcome = Outcome.of(result);
+                            boolean expected = result.getStatusCode() == entry.getStatusCode() && outcome == baselines[index];
+                            stats.record(request, outcome, expected, intended, result.getSentNanos(), result.getReceivedNanos());
+                        }
+                    } finally {
+                        inFlight.decrementAndGet();
+                    }
+                })
+                .exceptionally(error -> null);
+    }
+
+    private void drain() {
+        long deadline = System.nanoTime() + drainTimeout.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path file = Paths.get(System.getProperty("replay.file", "build/api-journal.bin"));
+        List<ApiJournal.Entry> entries = ApiJournal.read(file);
+        double speed = Double.parseDouble(System.getProperty("replay.speed", "1"));
+        int streams = Integer.getInteger("replay.streams", 1);
+        int repeats = Integer.getInteger("replay.repeats", 1);
+        System.out.printf("Replaying %d requests from %s at %sx with %d streams, %d repeats%n",
+                entries.size(), file, speed, streams, repeats);
+        LoadReport report = new ReplayEngine(entries, speed, streams, repeats, Duration.ofSeconds(30)).run();
+        System.out.println(report);
+        System.exit(report.getTotal().getErrors() == 0 ? 0 : 1);
+    }
+}
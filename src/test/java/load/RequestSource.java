@@ -0,0 +1,10 @@
+package load;
+
+@FunctionalInterface
+public interface RequestSource {
+
+    /**
+     * Запрос с порядковым номером {@code index}. Вызывается из потоков, отправляющих нагрузку.
+     */
+    LoadRequest next(long index);
+}
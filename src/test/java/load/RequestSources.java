@@ -0,0 +1,73 @@
+package load;
+
+import data.api.ApiDataHelper;
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import data.api.AsyncApiHelper;
+import data.api.PayloadCorpus;
+import data.ui.DataHelper;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public class RequestSources {
+    private RequestSources() {
+    }
+
+    /**
+     * Варианты карты с одним невалидным полем, на которые API отвечает {@code 400 Bad Request}.
+     * Номер из 15 цифр, месяц 13, держатель кириллицей и CVC из двух цифр сюда не входят:
+     * по docs/Report.md приложение их принимает, и в корпусе ошибок они считались бы сбоями.
+     */
+    private static final List<Supplier<ApiDataHelper.CardInfo>> invalidCards = List.of(
+            () -> card(DataHelper.CommonValues.generateLetters(16), DataHelper.Month.validMonth(),
+                    DataHelper.Holder.validHolder(), DataHelper.CommonValues.generateDigits(3)),
+            () -> card(DataHelper.CardNumber.approvedCardNumber(), DataHelper.CommonValues.invalidValueSymbols(2),
+                    DataHelper.Holder.validHolder(), DataHelper.CommonValues.generateDigits(3)),
+            () -> card(DataHelper.CardNumber.approvedCardNumber(), DataHelper.Month.validMonth(),
+                    DataHelper.Holder.validHolder(), DataHelper.CommonValues.generateLetters(3)));
+
+    /**
+     * Запросы с валидной картой на эндпоинт; остальные поля карты генерируются на каждый запрос.
+     */
+    public static RequestSource validCard(ApiEndpoints endpoint, String cardNumber, ApiStatus expected) {
+        String bucket = endpoint.name() + " " + expected.name();
+        return index -> new LoadRequest(bucket, endpoint, AsyncApiHelper.encode(validCard(cardNumber)), expected);
+    }
+
+    /**
+     * Запросы с валидной картой из заранее сериализованного набора {@link PayloadCorpus}:
+     * источник не выделяет память на запрос.
+     */
+    public static RequestSource validCardCorpus(ApiEndpoints endpoint, String cardNumber, ApiStatus expected, int size) {
+        PayloadCorpus corpus = PayloadCorpus.of(size, () -> validCard(cardNumber));
+        return fromCorpus(endpoint.name() + " " + expected.name(), endpoint, corpus, expected);
+    }
+
+    /**
+     * Запросы с невалидным полем карты из {@link PayloadCorpus}; варианты полей чередуются по кругу.
+     */
+    public static RequestSource invalidCardCorpus(ApiEndpoints endpoint, int size) {
+        AtomicInteger variant = new AtomicInteger();
+        PayloadCorpus corpus = PayloadCorpus.of(size, () -> invalidCards.get(variant.getAndIncrement() % invalidCards.size()).get());
+        return fromCorpus(endpoint.name() + " " + ApiStatus.BAD_REQUEST.name(), endpoint, corpus, ApiStatus.BAD_REQUEST);
+    }
+
+    public static RequestSource fromCorpus(String bucket, ApiEndpoints endpoint, PayloadCorpus corpus, ApiStatus expected) {
+        LoadRequest[] requests = new LoadRequest[corpus.size()];
+        for (int i = 0; i < requests.length; i++) {
+            requests[i] = new LoadRequest(bucket, endpoint, corpus.get(i), expected);
+        }
+        return index -> requests[(int) (index % requests.length)];
+    }
+
+    static ApiDataHelper.CardInfo validCard(String cardNumber) {
+        return card(cardNumber, DataHelper.Month.validMonth(), DataHelper.Holder.validHolder(),
+                DataHelper.CommonValues.generateDigits(3));
+    }
+
+    private static ApiDataHelper.CardInfo card(String cardNumber, String month, String holder, String cvc) {
+        return ApiDataHelper.getCard(cardNumber, month, DataHelper.CardYear.generateYearOffset(2), holder, cvc);
+    }
+}
@@ -0,0 +1,157 @@
+package load;
+
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import data.ui.DataHelper;
+import lombok.Value;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Поиск точки насыщения: открытая нагрузка со ступенчато растущей интенсивностью. Каждая ступень держится
+ * {@code stepDuration}, после неё проверяются p99 (скорректированная задержка) и доля ошибок. Рост прекращается
+ * на первой ступени, нарушившей SLO; максимальная устойчивая пропускная способность — фактическая пропускная
+ * способность последней ступени без нарушения.
+ * <p>
+ * Запуск: {@code ./gradlew findSaturation -Dsaturation.startRate=50 -Dsaturation.step=50 -Dsaturation.p99Ms=1000}.
+ */
+public class SaturationFinder {
+
+    private final RequestSource source;
+    private final double startRate;
+    private final double rateStep;
+    private final double maxRate;
+    private final Duration stepDuration;
+    private final long p99BudgetMicros;
+    private final double maxErrorRate;
+
+    public SaturationFinder(RequestSource source, double startRate, double rateStep, double maxRate,
+                            Duration stepDuration, Duration p99Budget, double maxErrorRate) {
+        if (startRate <= 0 || rateStep <= 0 || maxRate < startRate) {
+            throw new IllegalArgumentException("Expected 0 < startRate <= maxRate and a positive step");
+        }
+        this.source = source;
+        this.startRate = startRate;
+        this.rateStep = rateStep;
+        this.maxRate = maxRate;
+        this.stepDuration = stepDuration;
+        this.p99BudgetMicros = p99Budget.toNanos() / 1000;
+        this.maxErrorRate = maxErrorRate;
+    }
+
+    @Value
+    public static class Step {
+        double offeredRate;
+        double throughput;
+        long p50Micros;
+        long p99Micros;
+        double errorRate;
+        String breach;
+
+        public boolean isSustainable() {
+            return breach == null;
+        }
+    }
+
+    @Value
+    public static class Result {
+        List<Step> steps;
+
+        /**
+         * Фактическая пропускная способность последней ступени без нарушения SLO или 0, если нарушена уже первая.
+         */
+        public double getMaxSustainableThroughput() {
+            return steps.stream().filter(Step::isSustainable)
+                    .mapToDouble(Step::getThroughput).reduce((first, second) -> second).orElse(0);
+        }
+
+        public void writeCsv(Path file) throws IOException {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write("offered_rps,throughput_rps,p50_us,p99_us,error_rate,breach\n");
+                for (Step step : steps) {
+                    out.write(String.format(Locale.ROOT, "%.1f,%.1f,%d,%d,%.5f,%s%n", step.offeredRate, step.throughput,
+                            step.p50Micros, step.p99Micros, step.errorRate, step.breach == null ? "" : step.breach));
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder(String.format("Throughput vs latency, us:%n  %10s %10s %9s %9s %8s   %s%n",
+                    "offered/s", "req/s", "p50", "p99", "errors", "SLO"));
+            for (Step step : steps) {
+                out.append(String.format("  %10.1f %10.1f %9d %9d %7.2f%%   %s%n", step.offeredRate, step.throughput,
+                        step.p50Micros, step.p99Micros, step.errorRate * 100, step.isSustainable() ? "ok" : step.breach));
+            }
+            out.append(String.format("  max sustainable throughput: %.1f req/s%n", getMaxSustainableThroughput()));
+            return out.toString();
+        }
+    }
+
+    public Result run() {
+        List<Step> steps = new ArrayList<>();
+        for (double rate = startRate; rate <= maxRate; rate += rateStep) {
+            LoadProfile profile = LoadProfile.builder()
+                    .model(LoadProfile.Model.OPEN)
+                    .ratePerSecond(rate)
+                    .duration(stepDuration)
+                    .build();
+            LoadReport report = new LoadEngine(profile, source).run();
+            Step step = toStep(rate, report);
+            steps.add(step);
+            System.out.printf("step %.1f req/s: %.1f req/s, p99 %d us, errors %.2f%% %s%n", rate, step.throughput,
+                    step.p99Micros, step.errorRate * 100, step.isSustainable() ? "" : "-> " + step.breach);
+            if (!step.isSustainable()) {
+                break;
+            }
+        }
+        return new Result(steps);
+    }
+
+    private Step toStep(double rate, LoadReport report) {
+        LoadReport.BucketReport total = report.getTotal();
+        long p99 = total.getLatency().getValueAtPercentile(99);
+        String breach = null;
+        if (p99 > p99BudgetMicros) {
+            breach = String.format("p99 %d us > %d us", p99, p99BudgetMicros);
+        } else if (total.getErrorRate() > maxErrorRate) {
+            breach = String.format("errors %.2f%% > %.2f%%", total.getErrorRate() * 100, maxErrorRate * 100);
+        }
+        return new Step(rate, report.getThroughput(total), total.getLatency().getValueAtPercentile(50), p99,
+                total.getErrorRate(), breach);
+    }
+
+    public static void main(String[] args) throws IOException {
+        int corpusSize = Integer.getInteger("load.corpus", 1024);
+        String mix = System.getProperty("load.mix");
+        RequestSource source = mix != null && !mix.isBlank()
+                ? WorkloadMix.parse(mix, corpusSize, Long.getLong("load.seed", 1L))
+                : RequestSources.validCardCorpus(ApiEndpoints.PAY, DataHelper.CardNumber.approvedCardNumber(),
+                ApiStatus.APPROVED, corpusSize);
+        SaturationFinder finder = new SaturationFinder(source,
+                Double.parseDouble(System.getProperty("saturation.startRate", "50")),
+                Double.parseDouble(System.getProperty("saturation.step", "50")),
+                Double.parseDouble(System.getProperty("saturation.maxRate", "5000")),
+                Duration.ofSeconds(Long.getLong("saturation.stepSec", 30L)),
+                Duration.ofMillis(Long.getLong("saturation.p99Ms", 1000L)),
+                Double.parseDouble(System.getProperty("saturation.maxErrorRate", "0.01")));
+        Result result = finder.run();
+        Path csv = Paths.get(System.getProperty("saturation.csv", "build/saturation.csv"));
+        result.writeCsv(csv);
+        System.out.print(result);
+        System.out.println("Curve written to " + csv.toAbsolutePath());
+        System.exit(0);
+    }
+}
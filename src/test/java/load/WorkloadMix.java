@@ -0,0 +1,101 @@
+package load;
+
+import data.api.ApiEndpoints;
+import data.api.ApiStatus;
+import data.ui.DataHelper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Смесь нагрузки: каждый запрос выбирается из нескольких источников пропорционально их весам.
+ * Выбор зависит только от номера запроса и {@code seed}, поэтому прогон воспроизводим и не выделяет память.
+ * Группы в отчёте задаются источниками, так что пропускная способность и задержка выводятся по каждой части смеси.
+ */
+public class WorkloadMix implements RequestSource {
+
+    /**
+     * Смесь по умолчанию для {@code -Dload.mix=default}: оплата и кредит, одобренные, отклонённые и невалидные карты.
+     */
+    public static final String DEFAULT = "PAY.APPROVED=35,PAY.DECLINED=15,PAY.BAD_REQUEST=10,"
+            + "CREDIT.APPROVED=20,CREDIT.DECLINED=10,CREDIT.BAD_REQUEST=10";
+
+    private final long seed;
+    private final List<RequestSource> sources = new ArrayList<>();
+    private final List<Long> weights = new ArrayList<>();
+    private long[] cumulative = new long[0];
+    private RequestSource[] selected = new RequestSource[0];
+
+    public WorkloadMix(long seed) {
+        this.seed = seed;
+    }
+
+    public WorkloadMix add(long weight, RequestSource source) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Mix weight must be positive: " + weight);
+        }
+        sources.add(source);
+        weights.add(weight);
+        cumulative = new long[weights.size()];
+        long total = 0;
+        for (int i = 0; i < cumulative.length; i++) {
+            total += weights.get(i);
+            cumulative[i] = total;
+        }
+        selected = sources.toArray(new RequestSource[0]);
+        return this;
+    }
+
+    @Override
+    public LoadRequest next(long index) {
+        if (selected.length == 0) {
+            throw new IllegalStateException("Workload mix is empty");
+        }
+        long point = Math.floorMod(mix(seed ^ index), cumulative[cumulative.length - 1]);
+        int i = 0;
+        while (point >= cumulative[i]) {
+            i++;
+        }
+        return selected[i].next(index);
+    }
+
+    /**
+     * Смесь из строки вида {@code PAY.APPROVED=40,CREDIT.BAD_REQUEST=5}: эндпоинт {@link ApiEndpoints},
+     * ожидаемый статус {@code APPROVED}, {@code DECLINED} или {@code BAD_REQUEST} и вес.
+     *
+     * @param corpusSize - размер набора заранее сериализованных тел для каждой части смеси.
+     */
+    public static WorkloadMix parse(String spec, int corpusSize, long seed) {
+        WorkloadMix mix = new WorkloadMix(seed);
+        for (String part : ("default".equalsIgnoreCase(spec) ? DEFAULT : spec).split(",")) {
+            String[] keyAndWeight = part.trim().split("=");
+            String[] endpointAndStatus = keyAndWeight[0].trim().split("\\.");
+            if (keyAndWeight.length != 2 || endpointAndStatus.length != 2) {
+                throw new IllegalArgumentException("Expected ENDPOINT.STATUS=weight, got: " + part);
+            }
+            ApiEndpoints endpoint = ApiEndpoints.valueOf(endpointAndStatus[0]);
+            ApiStatus status = ApiStatus.valueOf(endpointAndStatus[1]);
+            mix.add(Long.parseLong(keyAndWeight[1].trim()), source(endpoint, status, corpusSize));
+        }
+        return mix;
+    }
+
+    private static RequestSource source(ApiEndpoints endpoint, ApiStatus status, int corpusSize) {
+        switch (status) {
+            case APPROVED:
+                return RequestSources.validCardCorpus(endpoint, DataHelper.CardNumber.approvedCardNumber(), status, corpusSize);
+            case DECLINED:
+                return RequestSources.validCardCorpus(endpoint, DataHelper.CardNumber.declinedCardNumber(), status, corpusSize);
+            case BAD_REQUEST:
+                return RequestSources.invalidCardCorpus(endpoint, corpusSize);
+            default:
+                throw new IllegalArgumentException("Unsupported mix status: " + status);
+        }
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
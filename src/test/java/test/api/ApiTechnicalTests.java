@@ -4,6 +4,9 @@ import data.api.ApiDataHelper;
 import data.api.ApiEndpoints;
 import data.api.ApiHelper;
 import data.api.ApiStatus;
+import data.api.AsyncApiHelper;
+import data.api.AsyncResponse;
+import data.api.ExchangeLogExtension;
 import data.ui.DataHelper;
 import io.qameta.allure.*;
 import io.restassured.http.Method;
@@ -11,7 +14,13 @@ import io.restassured.response.Response;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+@ExtendWith(ExchangeLogExtension.class)
 public class ApiTechnicalTests {
 
     @Test
@@ -133,4 +142,24 @@ public class ApiTechnicalTests {
         Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
     }
+
+    @Test
+    @Epic("Payment Processing")
+    @Feature("Card Payment API")
+    @Story("Request Validation")
+    @Owner("Veronika Obukhova")
+    @Severity(SeverityLevel.NORMAL)
+    @Tag("API")
+    @DisplayName("Should return Bad Request for every one of 200 concurrent requests with empty body")
+    void shouldReturnBadRequestForConcurrentEmptyBodyRequests() {
+        List<CompletableFuture<AsyncResponse>> responses = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            responses.add(AsyncApiHelper.sendRequestAsync(ApiEndpoints.PAY, "{}", Method.POST));
+        }
+        CompletableFuture.allOf(responses.toArray(new CompletableFuture<?>[0])).join();
+
+        for (CompletableFuture<AsyncResponse> response : responses) {
+            AsyncApiHelper.assertResponse(response.join(), ApiStatus.BAD_REQUEST);
+        }
+    }
 }
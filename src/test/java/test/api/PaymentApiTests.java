@@ -2,12 +2,16 @@ package test.api;
 
 import data.api.*;
 import data.bd.SQLHelper;
+import data.gate.GateHelper;
 import data.ui.DataHelper;
+import gate.GateEndpoint;
 import io.qameta.allure.*;
 import io.restassured.http.Method;
 import io.restassured.response.Response;
 import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
 
+@ExtendWith(ExchangeLogExtension.class)
 public class PaymentApiTests {
 
     private final String statusApproved = DataHelper.CommonValues.getStatusApproved();
@@ -19,6 +23,11 @@ public class PaymentApiTests {
         SQLHelper.cleanDatabase();
     }
 
+    @AfterEach
+    void reconcileDatabase() {
+        SQLHelper.assertDatabaseReconciled();
+    }
+
 
     @Test
     @Epic("Payment Processing")
@@ -38,12 +47,17 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        long gateMark = GateHelper.mark();
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
+        GateHelper.assertCalledOnce(gateMark, GateEndpoint.PAYMENT, cardNumber);
     }
 
     @Test
@@ -64,12 +78,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.DECLINED);
 
-        SQLHelper.checkPaymentStatus(statusDeclined);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusDeclined)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -90,11 +107,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -115,11 +133,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -140,11 +159,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -165,11 +185,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -190,11 +211,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -215,11 +237,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -240,11 +263,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -265,11 +289,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, month, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -290,12 +315,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, validMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -316,12 +344,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, validMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -342,12 +373,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, validMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -368,11 +402,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -393,11 +428,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -418,11 +454,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -443,11 +480,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -468,11 +506,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -493,11 +532,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
 
@@ -519,11 +559,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -544,11 +585,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -569,11 +611,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -594,11 +637,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, invalidMonth, year, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -619,12 +663,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, validYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -645,12 +692,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, validYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -671,12 +721,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, validYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -697,11 +750,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -722,11 +776,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -747,11 +802,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -772,11 +828,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -797,11 +854,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -823,11 +881,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -848,11 +907,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -873,11 +933,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -898,11 +959,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, invalidYear, holder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -923,12 +985,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -949,12 +1014,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -975,12 +1043,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1001,12 +1072,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1027,12 +1101,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1053,12 +1130,15 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, validHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1079,11 +1159,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1104,11 +1185,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1129,11 +1211,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1154,11 +1237,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1179,11 +1263,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1204,11 +1289,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1229,11 +1315,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1254,11 +1341,12 @@ public class PaymentApiTests {
         String cvc = DataHelper.CommonValues.generateDigits(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, invalidHolder, cvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1279,12 +1367,15 @@ public class PaymentApiTests {
         String validCvc = DataHelper.CVC.validCVC000();
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, validCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1305,12 +1396,15 @@ public class PaymentApiTests {
         String validCvc = DataHelper.CVC.validCVC999();
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, validCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.APPROVED);
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        SQLHelper.expectPayment(trace)
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1331,11 +1425,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.generateDigits(2);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1356,11 +1451,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.generateDigits(4);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1381,11 +1477,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.generateLetters(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1406,11 +1503,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.invalidValueCyrillic(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1431,11 +1529,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.invalidValueSymbols(3);
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1456,11 +1555,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.invalidValueSpace();
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1481,11 +1581,12 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.getValueEmpty();
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(cardNumber, month, year, holder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 
     @Test
@@ -1505,10 +1606,11 @@ public class PaymentApiTests {
         String invalidCvc = DataHelper.CommonValues.getValueEmpty();
 
         ApiDataHelper.CardInfo card = ApiDataHelper.getCard(invalidCardNumber, invalidMonth, invalidYear, invalidHolder, invalidCvc);
-        Response response = ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST);
+        SQLHelper.RequestTrace trace = SQLHelper.trace(() -> ApiHelper.sendRequest(ApiEndpoints.PAY, card, Method.POST));
+        Response response = trace.getResponse();
         ApiHelper.assertResponse(response, ApiStatus.BAD_REQUEST);
 
-        SQLHelper.assertNoOrders();
-        SQLHelper.assertNoPayments();
+        SQLHelper.assertNoOrders(trace);
+        SQLHelper.assertNoPayments(trace);
     }
 }
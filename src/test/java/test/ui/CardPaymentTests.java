@@ -1,7 +1,9 @@
 package test.ui;
 
 import data.ui.DataHelper;
+import data.bd.PaymentExpectation;
 import data.bd.SQLHelper;
+import data.env.WorkerEnvironment;
 import io.qameta.allure.*;
 import org.junit.jupiter.api.*;
 import page.CardPaymentPage;
@@ -41,7 +43,7 @@ public class CardPaymentTests {
 
     @BeforeEach
     void setUp() {
-        open("http://localhost:8080/");
+        open(WorkerEnvironment.getBaseUrl());
 
         mainPage = new PaymentMethodPage();
         cardPage = mainPage.selectCardPayment();
@@ -88,12 +90,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
 
@@ -117,13 +122,16 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkErrorNotification();
 
 
-        SQLHelper.checkPaymentStatus(statusDeclined);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusDeclined)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
 
@@ -312,12 +320,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, validMonth, year, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -340,12 +351,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, validMonth, year, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -368,12 +382,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, validMonth, year, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -617,12 +634,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, validYear, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -645,12 +665,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, validYear, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -673,12 +696,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, validYear, holder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -896,12 +922,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -924,12 +953,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -952,12 +984,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -980,12 +1015,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1008,12 +1046,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1036,12 +1077,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, validHolder, cvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1233,12 +1277,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, holder, validCvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test
@@ -1261,12 +1308,15 @@ public class CardPaymentTests {
 
         cardPage.fillCardForm(cardNumber, month, year, holder, validCvc);
         cardPage.clickContinueButton();
+        PaymentExpectation payment = SQLHelper.expectNextPayment();
         cardPage.sendRequestToBank();
         cardPage.checkSuccessNotification();
 
-        SQLHelper.checkPaymentStatus(statusApproved);
-        SQLHelper.checkPaymentAmount(amountTravel);
-        SQLHelper.checkOrderLinkedToPayment();
+        payment
+                .status(statusApproved)
+                .amount(amountTravel)
+                .linkedToOrder()
+                .verify();
     }
 
     @Test